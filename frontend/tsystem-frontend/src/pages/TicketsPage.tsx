@@ -44,6 +44,9 @@ const TicketsPage = () => {
     const [tickets, setTickets] = useState<TicketResponse[]>([]);
     const [error, setError] = useState<string | null>(null);
     const [loading, setLoading] = useState(true);
+    // cursor of the next project page, null when the last page is loaded
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [onlyMineInProject, setOnlyMineInProject] = useState(true);
     const [currentUserId, setCurrentUserId] = useState<string | null>(null);
 
@@ -68,18 +71,19 @@ const TicketsPage = () => {
         setError(e?.message ?? fallback);
     };
 
-    const loadTickets = async () => {
+    // (re)loads the first page only, older tickets come with "Load more"
+    const loadTickets = async (showLoading = true) => {
         try {
-            setLoading(true);
-            let data: TicketResponse[];
+            if (showLoading) setLoading(true);
 
             if (projectId) {
-                data = await ticketService.findByProject(projectId);
+                const page = await ticketService.findByProject(projectId);
+                setTickets(page.items);
+                setNextCursor(page.nextCursor ?? null);
             } else {
-                data = await ticketService.findMyAssigned();
+                setTickets(await ticketService.findMyAssigned());
+                setNextCursor(null);
             }
-
-            setTickets(data);
             setError(null);
         } catch (e: any) {
             handleAuthError(e, "Failed to load tickets");
@@ -88,6 +92,21 @@ const TicketsPage = () => {
         }
     };
 
+    const loadMore = async () => {
+        if (!projectId || !nextCursor) return;
+        try {
+            setLoadingMore(true);
+            const page = await ticketService.findByProject(projectId, nextCursor);
+            // keyset pages: tickets created meanwhile do not shift what comes next
+            setTickets((prev) => [...prev, ...page.items]);
+            setNextCursor(page.nextCursor ?? null);
+        } catch (e: any) {
+            handleAuthError(e, "Failed to load tickets");
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     useEffect(() => {
         try {
             const id = getCurrentUserId();
@@ -104,6 +123,43 @@ const TicketsPage = () => {
         // eslint-disable-next-line react-hooks/exhaustive-deps
     }, [projectId]);
 
+    // applies one ticket event to the loaded tickets: only the changed ticket is fetched
+    const applyTicketEvent = async (type: string, ticketId: string) => {
+        if (!projectId) return;
+        if (type === "ticket_deleted") {
+            setTickets((prev) => prev.filter((t) => t.id !== ticketId));
+            return;
+        }
+        try {
+            const ticket = await ticketService.findOne(projectId, ticketId);
+            setTickets((prev) => {
+                if (prev.some((t) => t.id === ticket.id)) {
+                    return prev.map((t) => (t.id === ticket.id ? ticket : t));
+                }
+                // updates of tickets on pages not loaded yet are left to "Load more"
+                return type === "ticket_created" ? [ticket, ...prev] : prev;
+            });
+        } catch (e: any) {
+            // deleted again before we got to it, the ticket_deleted event follows
+            if (e?.message !== "Not found") {
+                handleAuthError(e, "Failed to load ticket");
+            }
+        }
+    };
+
+    // keeps the loaded tickets current; after a reset (missed events) the first page is reloaded
+    useEffect(() => {
+        if (!projectId) return;
+        return ticketService.openProjectEvents(projectId, (type, event) => {
+            if (type === "reset") {
+                loadTickets(false);
+            } else if (event && type.startsWith("ticket_")) {
+                applyTicketEvent(type, event.ticketId);
+            }
+        });
+        // eslint-disable-next-line react-hooks/exhaustive-deps
+    }, [projectId]);
+
     let visibleTickets = tickets;
 
     if (projectId && currentUserId && onlyMineInProject) {
@@ -299,6 +355,18 @@ const TicketsPage = () => {
                 </Table>
             )}
 
+            {!loading && nextCursor && (
+                <div className="text-center mb-4">
+                    <Button
+                        variant="outline-primary"
+                        onClick={loadMore}
+                        disabled={loadingMore}
+                    >
+                        {loadingMore ? "Loading..." : "Load more"}
+                    </Button>
+                </div>
+            )}
+
             <Modal show={showModal} onHide={() => setShowModal(false)}>
                 <Form onSubmit={handleSave}>
                     <Modal.Header closeButton>
@@ -18,6 +18,35 @@ export interface TicketResponse {
     assignedUserId?: string | null;
 }
 
+export interface CursorPage<T> {
+    items: T[];
+    nextCursor?: string | null;
+}
+
+// data of every event of GET /api/projects/{projectId}/events except reset
+export interface TicketEvent {
+    projectId: string;
+    ticketId: string;
+    type: string;
+    at: string;
+}
+
+export interface StreamTokenResponse {
+    token: string;
+    expiresIn: number;
+}
+
+// SSE event names of GET /api/projects/{projectId}/events
+const PROJECT_EVENTS = [
+    "ticket_created",
+    "ticket_updated",
+    "ticket_deleted",
+    "comment_created",
+    "comment_updated",
+    "comment_deleted",
+    "reset",
+];
+
 export interface TicketRequestDto {
     name?: string;
     description?: string;
@@ -74,9 +103,14 @@ async function authFetch(url: string, options: RequestInit = {}) {
 }
 
 export const ticketService = {
-    // GET /api/projects/{projectId}/tickets
-    async findByProject(projectId: string): Promise<TicketResponse[]> {
-        return authFetch(`${PROJECTS_BASE}/${projectId}/tickets`, {
+    // GET /api/projects/{projectId}/tickets?cursor=
+    // one page, newest first; pass the previous page's nextCursor to get the one after it
+    async findByProject(
+        projectId: string,
+        cursor?: string | null
+    ): Promise<CursorPage<TicketResponse>> {
+        const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+        return authFetch(`${PROJECTS_BASE}/${projectId}/tickets${query}`, {
             method: "GET",
         });
     },
@@ -142,6 +176,62 @@ export const ticketService = {
         );
     },
 
+    // GET /api/projects/{projectId}/events?token=
+    // EventSource cannot send the Authorization header, so the stream is opened with a
+    // short-lived stream token. Its own reconnect would reuse the expired token, so on an
+    // error the stream is reopened here with a fresh one, resuming after the last event seen.
+    // Returns a function that closes the stream.
+    openProjectEvents(
+        projectId: string,
+        onEvent: (type: string, event: TicketEvent | null) => void
+    ): () => void {
+        let source: EventSource | null = null;
+        let lastEventId: string | null = null;
+        let retry: ReturnType<typeof setTimeout> | undefined;
+        let closed = false;
+
+        const reopen = (delayMs: number) => {
+            if (!closed) {
+                retry = setTimeout(open, delayMs);
+            }
+        };
+
+        const open = async () => {
+            try {
+                const { token }: StreamTokenResponse = await authFetch(
+                    `${PROJECTS_BASE}/${projectId}/events/token`,
+                    { method: "POST" }
+                );
+                if (closed) return;
+
+                const params = new URLSearchParams({ token });
+                if (lastEventId) params.set("lastEventId", lastEventId);
+                const es = new EventSource(`${PROJECTS_BASE}/${projectId}/events?${params}`);
+                PROJECT_EVENTS.forEach((type) =>
+                    es.addEventListener(type, (e) => {
+                        const message = e as MessageEvent;
+                        lastEventId = message.lastEventId || lastEventId;
+                        onEvent(type, type === "reset" ? null : JSON.parse(message.data));
+                    })
+                );
+                es.onerror = () => {
+                    es.close();
+                    reopen(3000);
+                };
+                source = es;
+            } catch {
+                reopen(10000);
+            }
+        };
+
+        open();
+        return () => {
+            closed = true;
+            clearTimeout(retry);
+            source?.close();
+        };
+    },
+
     // DELETE /api/projects/{projectId}/tickets/{ticketId}
     async remove(projectId: string, ticketId: string): Promise<void> {
         await authFetch(
@@ -2,7 +2,9 @@ package com.tsystem.configuration;
 
 
 import com.tsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,11 +12,14 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfiguration {
@@ -38,13 +43,39 @@ public class ApplicationConfiguration {
                         .orElseThrow(() -> new UsernameNotFoundException("User not found")));
     }
 
-    @Bean public PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
+    // BCrypt runs on its own bounded pool, see BoundedPasswordEncoder; shutdown() is inferred as destroy method
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password.bcrypt-strength:10}") int strength,
+                                           @Value("${security.password.threads:0}") int threads,
+                                           @Value("${security.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.max-wait:2s}") Duration maxWait) {
+        PasswordEncoder bcrypt = MetricsConfiguration.timed(new BCryptPasswordEncoder(strength), meterRegistry);
+        return new BoundedPasswordEncoder(bcrypt, threads, queueCapacity, maxWait, meterRegistry);
+    }
+
+    /**
+     * Rehash on login: after a successful login whose hash has a lower BCrypt strength than
+     * {@code security.password.bcrypt-strength}, DaoAuthenticationProvider hashes the presented
+     * password again and stores it here. Not a password change, so tokens stay valid.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newHash) -> {
+            userRepository.replacePasswordHash(user.getUsername(), user.getPassword(), newHash);
+            return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                    .password(newHash)
+                    .build();
+        };
+    }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService uds, PasswordEncoder encoder) {
+    public AuthenticationProvider authenticationProvider(UserDetailsService uds, PasswordEncoder encoder,
+                                                         UserDetailsPasswordService passwords) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(uds);
         provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwords);
         return provider;
     }
 
@@ -0,0 +1,130 @@
+package com.tsystem.configuration;
+
+import com.tsystem.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every hash and verification of the wrapped encoder on a small pool of its own, so a
+ * burst of logins costs at most {@code security.password.threads} cores instead of one per
+ * request thread.
+ * <p>
+ * Callers wait for their result; when {@code security.password.queue-capacity} hashes are
+ * already waiting, or a queued hash waited longer than {@code security.password.max-wait}
+ * (its client has likely given up), the call fails at once with a
+ * {@link TooManyRequestsException} (429) instead of piling up more work.
+ * <p>
+ * Metrics: {@code password.hash.queue.wait}, {@code password.hash.queued} and
+ * {@code password.hash.rejected}; the hash itself is timed by {@link MetricsConfiguration#timed}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor pool;
+    private final long maxWaitNanos;
+
+    private final Timer queueWait;
+    private final Counter rejectedFull;
+    private final Counter rejectedStale;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait,
+                                  MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread t = new Thread(r, "password-hash-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWait = Timer.builder("password.hash.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejectedFull = rejected(registry, "queue_full");
+        this.rejectedStale = rejected(registry, "waited_too_long");
+        Gauge.builder("password.hash.queued", queue, BlockingQueue::size)
+                .description("Password hashes waiting for a hashing thread")
+                .register(registry);
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("password.hash.rejected")
+                .description("Password hashes refused with 429")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /** Stops the hashing threads; called by Spring on shutdown. */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> work) {
+        long queued = System.nanoTime();
+        Future<T> result;
+        try {
+            result = pool.submit(() -> {
+                long waited = System.nanoTime() - queued;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxWaitNanos) {
+                    rejectedStale.increment();
+                    throw new TooManyRequestsException("Too many password checks at once, try again shortly");
+                }
+                return work.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedFull.increment();
+            throw new TooManyRequestsException("Too many password checks at once, try again shortly");
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password hash", e);
+        }
+    }
+}
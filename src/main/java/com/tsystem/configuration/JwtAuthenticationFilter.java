@@ -1,8 +1,10 @@
 package com.tsystem.configuration;
 
 import com.tsystem.model.user.User;
-import com.tsystem.repository.UserRepository;
+import com.tsystem.model.user.VerifiedToken;
+import com.tsystem.service.CredentialEpochs;
 import com.tsystem.service.JwtService;
+import com.tsystem.service.RevokedTokens;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,15 +13,11 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Optional;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -27,8 +25,8 @@ import java.util.UUID;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    private final UserRepository userRepository;
+    private final CredentialEpochs credentialEpochs;
+    private final RevokedTokens revokedTokens;
 
     @Override
     protected void doFilterInternal(
@@ -45,41 +43,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String jwt = authHeader.substring(7);
 
-        final String username;
+        // signature, expiration and claims are checked exactly once here
+        final VerifiedToken token;
         try {
-            username = jwtService.extractUsername(jwt);
+            token = jwtService.verify(jwt);
         } catch (Exception e) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            UUID userId = null;
-            try {
-                String userIdStr = jwtService.extractClaim(jwt, c -> c.get("userId", String.class));
-                if (userIdStr != null) userId = UUID.fromString(userIdStr);
-            } catch (Exception ignore) {
-
-            }
-
-            Optional<User> opt;
-            if (userId != null) opt = userRepository.findById(userId);
-            else opt = userRepository.findByUsername(username);
-
-            if (opt.isEmpty()) {
-                filterChain.doFilter(request, response);
-                return;
-            }
-            User domainUser = opt.get();
-
-            if (jwtService.isTokenValid(jwt, domainUser)) {
-                UsernamePasswordAuthenticationToken auth =
-                        new UsernamePasswordAuthenticationToken(domainUser, null, domainUser.getAuthorities());
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(auth);
-            }
+        // no database access: the principal comes from the claims, revocation from the epoch
+        // table and the revoked-token registry; the verified token is kept as credentials.
+        // Scoped tokens (with an audience) are only good for their own endpoint
+        if (SecurityContextHolder.getContext().getAuthentication() == null
+                && token.audience() == null
+                && token.userId() != null
+                && jwtService.isTokenValid(token, credentialEpochs.current(token.userId()))
+                && !revokedTokens.isRevoked(token.jti())) {
+            User principal = token.principal();
+            UsernamePasswordAuthenticationToken auth =
+                    new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+            auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(auth);
         }
 
         filterChain.doFilter(request, response);
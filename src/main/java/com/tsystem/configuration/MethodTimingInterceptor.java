@@ -0,0 +1,96 @@
+package com.tsystem.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of the advised beans into {@code <metricName>{class, method, outcome}}.
+ * Timers are built once per (class, method) and cached, so the hot path is two
+ * {@code nanoTime()} calls and a map lookup - no tag arrays or samples per call.
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    private static final int SUCCESS = 0;
+    private static final int ERROR = 1;
+
+    private final String metricName;
+    private final String packagePrefix;
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private volatile MeterRegistry registry;
+
+    // one cache per target class; repository proxies share interface methods like save()
+    private final ClassValue<ConcurrentHashMap<Method, Timer[]>> timers = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<Method, Timer[]> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    public MethodTimingInterceptor(String metricName, String packagePrefix,
+                                   ObjectProvider<MeterRegistry> registryProvider) {
+        this.metricName = metricName;
+        this.packagePrefix = packagePrefix;
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        Class<?> type = target != null ? target.getClass() : invocation.getMethod().getDeclaringClass();
+        Timer[] pair = timers.get(type).computeIfAbsent(invocation.getMethod(), m -> register(type, m));
+
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            pair[SUCCESS].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            pair[ERROR].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer[] register(Class<?> type, Method method) {
+        String owner = ownerName(type);
+        return new Timer[]{timer(owner, method, "success"), timer(owner, method, "error")};
+    }
+
+    private Timer timer(String owner, Method method, String outcome) {
+        return Timer.builder(metricName)
+                .tag("class", owner)
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry());
+    }
+
+    // Spring Data repositories are JDK proxies, name them after their own interface
+    private String ownerName(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (c.getName().startsWith(packagePrefix)) {
+                return c.getSimpleName();
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                if (i.getName().startsWith(packagePrefix)) {
+                    return i.getSimpleName();
+                }
+            }
+        }
+        return type.getSimpleName();
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry r = registry;
+        if (r == null) {
+            registry = r = registryProvider.getObject();
+        }
+        return r;
+    }
+}
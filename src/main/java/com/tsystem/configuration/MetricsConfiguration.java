@@ -0,0 +1,131 @@
+package com.tsystem.configuration;
+
+import com.tsystem.service.AuthService;
+import com.tsystem.service.ExportService;
+import com.tsystem.service.ProjectService;
+import com.tsystem.service.ProjectStatsService;
+import com.tsystem.service.SearchService;
+import com.tsystem.service.TicketIndexer;
+import com.tsystem.service.TicketService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application metrics, scraped from {@code /actuator/prometheus} with the {@code metrics:read} permission,
+ * which the scraper gets from its static token ({@link MetricsScrapeFilter}):
+ * <ul>
+ *   <li>{@code tsystem.service} - every public method of the ticket, project, auth, export and search services
+ *       and the search outbox</li>
+ *   <li>{@code tsystem.repository} - every repository call, Spring Data and plain JDBC alike</li>
+ *   <li>{@code password.encode} / {@code password.matches} - BCrypt cost, see {@link #timed}</li>
+ *   <li>{@code password.hash.*} - queueing in front of BCrypt, see {@link BoundedPasswordEncoder}</li>
+ * </ul>
+ * JWT verification and history writes are timed/counted where they happen
+ * ({@code jwt.verify}, {@code ticket.history.writes}).
+ * Defaults live in {@code metrics.properties}; application.properties overrides them.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfiguration {
+
+    private static final List<Class<?>> TIMED_SERVICES =
+            List.of(TicketService.class, ProjectService.class, AuthService.class, ExportService.class,
+                    SearchService.class, TicketIndexer.class, ProjectStatsService.class);
+
+    private static final String REPOSITORY_PACKAGE = "com.tsystem.repository.";
+
+    // outermost advice, so the timers include the transaction commit
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> registry) {
+        ClassFilter services = type -> TIMED_SERVICES.stream().anyMatch(s -> s.isAssignableFrom(type));
+        return advisor(services, new MethodTimingInterceptor("tsystem.service", "com.tsystem.", registry));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor repositoryTimingAdvisor(ObjectProvider<MeterRegistry> registry) {
+        return advisor(MetricsConfiguration::isRepository,
+                new MethodTimingInterceptor("tsystem.repository", REPOSITORY_PACKAGE, registry));
+    }
+
+    /** Decorates the password encoder with {@code password.encode} and {@code password.matches} timers. */
+    static PasswordEncoder timed(PasswordEncoder delegate, MeterRegistry registry) {
+        Timer encode = Timer.builder("password.encode").publishPercentileHistogram().register(registry);
+        Timer matches = Timer.builder("password.matches").publishPercentileHistogram().register(registry);
+
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                long start = System.nanoTime();
+                try {
+                    return delegate.encode(rawPassword);
+                } finally {
+                    encode.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                long start = System.nanoTime();
+                try {
+                    return delegate.matches(rawPassword, encodedPassword);
+                } finally {
+                    matches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return delegate.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    private static Advisor advisor(ClassFilter classFilter, MethodTimingInterceptor interceptor) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return Modifier.isPublic(method.getModifiers())
+                        && !Modifier.isStatic(method.getModifiers())
+                        && method.getDeclaringClass() != Object.class;
+            }
+        };
+        pointcut.setClassFilter(classFilter);
+
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    // own @Repository classes and the Spring Data proxies implementing our repository interfaces
+    private static boolean isRepository(Class<?> type) {
+        if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+            return true;
+        }
+        for (Class<?> i : type.getInterfaces()) {
+            if (i.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
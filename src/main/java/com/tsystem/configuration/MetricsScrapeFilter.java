@@ -0,0 +1,61 @@
+package com.tsystem.configuration;
+
+import com.tsystem.model.user.SystemPermission;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Lets the metrics scraper in with a static bearer token instead of a user's JWT, which would
+ * expire and carry far more than it needs. A request to {@code /actuator/**} whose bearer token
+ * equals {@code management.scrape.token} is authenticated as {@value #PRINCIPAL} with nothing
+ * but {@code metrics:read}. Without the property nobody is let in this way.
+ */
+@Component
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+
+    static final String PRINCIPAL = "metrics-scraper";
+
+    private final byte[] expected;
+
+    public MetricsScrapeFilter(@Value("${management.scrape.token:}") String token) {
+        this.expected = token.isBlank() ? null : ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return expected == null || !request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        final String authHeader = request.getHeader("Authorization");
+        // constant time, the token is a shared secret
+        if (authHeader != null
+                && MessageDigest.isEqual(authHeader.getBytes(StandardCharsets.UTF_8), expected)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    PRINCIPAL, null, List.of(new SimpleGrantedAuthority(SystemPermission.METRICS_READ.getPermission()))));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
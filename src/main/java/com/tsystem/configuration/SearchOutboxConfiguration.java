@@ -0,0 +1,44 @@
+package com.tsystem.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsystem.service.ElasticsearchTicketSink;
+import com.tsystem.service.FileTicketSink;
+import com.tsystem.service.TicketDocumentSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Sink of the external search indexer ({@link com.tsystem.service.TicketIndexer}), picked with
+ * {@code search.outbox.sink}:
+ * <ul>
+ *   <li>{@code elasticsearch} - {@code _bulk} requests to {@code search.outbox.elasticsearch.url}</li>
+ *   <li>{@code file} - the same bulk bodies appended to {@code search.outbox.file.path}</li>
+ * </ul>
+ * Any other value, the default included, leaves the outbox unused.
+ */
+@Configuration
+public class SearchOutboxConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "search.outbox.sink", havingValue = "elasticsearch")
+    TicketDocumentSink elasticsearchTicketSink(ObjectMapper objectMapper,
+                                               @Value("${search.outbox.elasticsearch.url:http://localhost:9200}") String url,
+                                               @Value("${search.outbox.index:tickets}") String index,
+                                               @Value("${search.outbox.elasticsearch.timeout:10s}") Duration timeout) {
+        return new ElasticsearchTicketSink(url, index, timeout, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "search.outbox.sink", havingValue = "file")
+    TicketDocumentSink fileTicketSink(ObjectMapper objectMapper,
+                                      @Value("${search.outbox.file.path:data/ticket-documents.ndjson}") String path,
+                                      @Value("${search.outbox.index:tickets}") String index) throws IOException {
+        return new FileTicketSink(Path.of(path), index, objectMapper);
+    }
+}
@@ -1,14 +1,17 @@
 package com.tsystem.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.tsystem.model.dto.request.GenerateDataRequest;
-import com.tsystem.model.dto.response.ExportDataDto;
+import com.tsystem.model.dto.response.GenerateDataResponse;
 import com.tsystem.model.user.User;
 import com.tsystem.service.ExportService;
 import com.tsystem.service.GeneratorService;
+import com.tsystem.service.ProjectPurger;
+import com.tsystem.service.ProjectStatsService;
+import com.tsystem.service.RevokedTokens;
+import com.tsystem.service.SearchService;
+import com.tsystem.service.TicketIndexer;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -32,6 +35,11 @@ public class AdminController {
 
     private final GeneratorService generatorService;
     private final ExportService exportService;
+    private final SearchService searchService;
+    private final TicketIndexer ticketIndexer;
+    private final ProjectStatsService projectStatsService;
+    private final ProjectPurger projectPurger;
+    private final RevokedTokens revokedTokens;
 
 
     @PreAuthorize("hasAuthority('admin:create')")
@@ -39,38 +47,74 @@ public class AdminController {
     public ResponseEntity<?> generateData(@AuthenticationPrincipal User user,
                                           @RequestBody GenerateDataRequest request) {
 
-        generatorService.generateData(
+        GenerateDataResponse result = generatorService.generateData(
                 request.getUserCount(),
                 request.getProjectCount(),
                 request.getTicketsPerUser());
 
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(result);
     }
 
 
     // ---------- JSON EXPORT ----------
     @PreAuthorize("hasAuthority('admin:read')")
     @GetMapping("/export-json")
-    public ResponseEntity<?> exportJson() throws IOException {
-        ExportDataDto data = exportService.getExportData();
-
-        ObjectMapper mapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule())
-                .enable(SerializationFeature.INDENT_OUTPUT)
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        String prettyJson = mapper.writeValueAsString(data);
-        byte[] jsonBytes = prettyJson.getBytes(StandardCharsets.UTF_8);
-
+    public void exportJson(HttpServletResponse response) throws IOException {
         String filename = "export-" +
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) +
                 ".json";
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(jsonBytes);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + filename + "\"");
+
+        // written chunk by chunk, nothing is buffered in memory
+        exportService.writeExport(response.getOutputStream());
+    }
+
+
+    // ---------- SEARCH INDEX ----------
+    // needed after generate-data, which writes straight to the tables
+    @PreAuthorize("hasAuthority('admin:create')")
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        return ResponseEntity.ok(searchService.rebuild());
+    }
+
+    // queues every ticket for the external index (search.outbox.sink)
+    @PreAuthorize("hasAuthority('admin:create')")
+    @PostMapping("/search/outbox/backfill")
+    public ResponseEntity<?> backfillSearchOutbox() {
+        return ResponseEntity.ok(Map.of("queued", ticketIndexer.backfill()));
+    }
+
+
+    // ---------- PROJECT STATS ----------
+    // recounts every project from the tickets table and reports the counters that were off
+    @PreAuthorize("hasAuthority('admin:create')")
+    @PostMapping("/stats/reconcile")
+    public ResponseEntity<?> reconcileStats() {
+        return ResponseEntity.ok(projectStatsService.reconcile());
+    }
+
+
+    // ---------- PROJECT PURGE ----------
+    // deleted projects whose tickets, comments and history are still being removed
+    @PreAuthorize("hasAuthority('admin:read')")
+    @GetMapping("/projects/purge")
+    public ResponseEntity<?> projectPurgeProgress() {
+        return ResponseEntity.ok(projectPurger.progress());
+    }
+
+
+    // ---------- TOKEN REVOCATION ----------
+    // kills one access token by its jti on every node, without waiting for its expiry
+    @PreAuthorize("hasAuthority('admin:update')")
+    @PostMapping("/tokens/{jti}/revoke")
+    public ResponseEntity<?> revokeToken(@PathVariable UUID jti) {
+        revokedTokens.revoke(jti, null, null);
+        return ResponseEntity.noContent().build();
     }
 
 
@@ -3,9 +3,11 @@ package com.tsystem.controller;
 import com.tsystem.exception.UnauthorizedException;
 import com.tsystem.model.dto.*;
 import com.tsystem.model.dto.request.LoginRequest;
+import com.tsystem.model.dto.request.RefreshRequest;
 import com.tsystem.model.dto.request.RegisterRequest;
 import com.tsystem.model.dto.response.TokenResponse;
 import com.tsystem.model.user.User;
+import com.tsystem.model.user.VerifiedToken;
 import com.tsystem.service.AuthService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.annotation.CurrentSecurityContext;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,7 +36,8 @@ public class AuthController {
     ) {
         ResponseEntity entity = ResponseEntity.ok(authService.register(request));
 
-        logger.info("user registered: "+entity.toString());
+        // the body carries the tokens, keep them out of the log
+        logger.info("user registered: " + request.getUsername());
         return entity;
 
     }
@@ -44,10 +48,24 @@ public class AuthController {
     ) {
 
         ResponseEntity<TokenResponse> entity = ResponseEntity.ok(authService.authenticate(loginRequest));
-        logger.info("login detected: "+entity.toString());
+        logger.info("login detected: " + loginRequest.getLogin());
         return entity;
     }
 
+    @PostMapping("/refresh")
+    public TokenResponse refresh(@RequestBody RefreshRequest request) {
+        return authService.refresh(request);
+    }
+
+    @PostMapping("/logout")
+    @SecurityRequirement(name = "bearerAuth")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@RequestBody(required = false) RefreshRequest req,
+                       @CurrentSecurityContext(expression = "authentication?.credentials") VerifiedToken token) {
+        if (token == null) throw new UnauthorizedException("Unauthorized");
+        authService.logout(token, req);
+    }
+
     @PostMapping("/request-password-reset")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void requestReset(@RequestBody RequestPasswordReset req) {
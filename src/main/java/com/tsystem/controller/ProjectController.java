@@ -1,18 +1,25 @@
 package com.tsystem.controller;
 
+import com.tsystem.model.Project;
 import com.tsystem.model.dto.request.ProjectCreateRequest;
 import com.tsystem.model.dto.request.ProjectPatchRequest;
 import com.tsystem.model.dto.request.ProjectUpdateRequest;
 import com.tsystem.model.dto.response.ProjectResponse;
+import com.tsystem.model.dto.response.ProjectStatsResponse;
 import com.tsystem.model.mapper.ProjectMapper;
 import com.tsystem.service.ProjectService;
+import com.tsystem.service.ProjectStatsService;
+import com.tsystem.web.ETags;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +33,7 @@ import java.util.UUID;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
 
     // GET /projects
     @GetMapping
@@ -42,26 +50,40 @@ public class ProjectController {
         return ProjectMapper.toResponse(projectService.create(req, principal.getUsername()));
     }
 
-    // GET /projects/{projectId}
+    // GET /projects/{projectId}/stats  - ticket counts by state, priority, type and assignee
+    @GetMapping("/{projectId}/stats")
+    public ProjectStatsResponse stats(@PathVariable UUID projectId,
+                                      @AuthenticationPrincipal UserDetails principal) {
+        return projectStatsService.stats(projectId, principal.getUsername());
+    }
+
+    // GET /projects/{projectId}  - 304 on a matching If-None-Match, without loading the project
     @GetMapping("/{projectId}")
-    public ProjectResponse get(@PathVariable UUID projectId,
-                               @AuthenticationPrincipal UserDetails principal) {
-        return ProjectMapper.toResponse(projectService.findById(projectId, principal.getUsername()));
+    public ResponseEntity<ProjectResponse> get(@PathVariable UUID projectId,
+                                               @AuthenticationPrincipal UserDetails principal,
+                                               WebRequest request) {
+        if (ETags.notModified(request, () ->
+                ETags.version(projectService.version(projectId, principal.getUsername())))) {
+            return null;
+        }
+        return tagged(projectService.findById(projectId, principal.getUsername()));
     }
 
-    // PUT /projects/{projectId}
+    // PUT /projects/{projectId}  - 412 if If-Match is not the current ETag
     @PutMapping("/{projectId}")
-    public ProjectResponse update(@PathVariable UUID projectId,
-                                  @Valid @RequestBody ProjectUpdateRequest req,
-                                  @AuthenticationPrincipal UserDetails principal) {
-        return ProjectMapper.toResponse(projectService.update(projectId, req, principal.getUsername()));
+    public ResponseEntity<ProjectResponse> update(@PathVariable UUID projectId,
+                                                  @Valid @RequestBody ProjectUpdateRequest req,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @AuthenticationPrincipal UserDetails principal) {
+        return tagged(projectService.update(projectId, req, ETags.expectedVersion(ifMatch), principal.getUsername()));
     }
-    // PATCH /projects/{projectId}
+    // PATCH /projects/{projectId}  - 412 if If-Match is not the current ETag
     @PatchMapping("/{projectId}")
-    public ProjectResponse patch(@PathVariable UUID projectId,
-                                 @Valid @RequestBody ProjectPatchRequest req,
-                                 @AuthenticationPrincipal UserDetails principal) {
-        return ProjectMapper.toResponse(projectService.patch(projectId, req, principal.getUsername()));
+    public ResponseEntity<ProjectResponse> patch(@PathVariable UUID projectId,
+                                                 @Valid @RequestBody ProjectPatchRequest req,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @AuthenticationPrincipal UserDetails principal) {
+        return tagged(projectService.patch(projectId, req, ETags.expectedVersion(ifMatch), principal.getUsername()));
     }
 
 
@@ -72,4 +94,8 @@ public class ProjectController {
                        @AuthenticationPrincipal UserDetails principal) {
         projectService.delete(projectId, principal.getUsername());
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<ProjectResponse> tagged(Project p) {
+        return ResponseEntity.ok().eTag(ETags.version(p.getVersion())).body(ProjectMapper.toResponse(p));
+    }
+}
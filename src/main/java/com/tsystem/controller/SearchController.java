@@ -0,0 +1,29 @@
+package com.tsystem.controller;
+
+import com.tsystem.model.dto.response.TicketSearchHit;
+import com.tsystem.service.SearchService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@CrossOrigin(methods = {RequestMethod.GET})
+public class SearchController {
+
+    private final SearchService searchService;
+
+    // GET /api/search?q=&limit=  - tickets of the caller's projects, best match first
+    @GetMapping
+    public List<TicketSearchHit> search(@RequestParam String q,
+                                        @RequestParam(required = false) Integer limit,
+                                        @AuthenticationPrincipal UserDetails principal) {
+        return searchService.search(q, limit, principal.getUsername());
+    }
+}
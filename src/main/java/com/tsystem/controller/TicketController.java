@@ -1,24 +1,35 @@
 package com.tsystem.controller;
 
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.dto.request.TicketBatchRequest;
 import com.tsystem.model.dto.request.TicketCommentRequest;
 import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.dto.response.CursorPage;
+import com.tsystem.model.dto.response.TicketBatchResponse;
 import com.tsystem.model.dto.response.TicketCommentResponse;
 import com.tsystem.model.dto.response.TicketHistoryResponse;
 import com.tsystem.model.dto.response.TicketResponse;
+import com.tsystem.model.dto.response.TicketView;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
 import com.tsystem.model.mapper.TicketCommentMapper;
-import com.tsystem.model.mapper.TicketHistoryMapper;
 import com.tsystem.model.mapper.TicketMapper;
 import com.tsystem.service.TicketService;
+import com.tsystem.web.ETags;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -39,15 +50,32 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.listByAssigned(principal.getUsername()));
     }
 
-    // GET /projects/{projectId}/tickets
+    // GET /projects/{projectId}/tickets?cursor=&limit=&state=&priority=&type=&assignedUserId=&commentCounts=
+    // ETag is the project revision, read before the page so it is never newer than the page;
+    // comment writes bump it too, so it covers the comment counts
     @GetMapping("/projects/{projectId}/tickets")
     @SecurityRequirement(name = "bearerAuth")
-    public List<TicketResponse> list(@PathVariable UUID projectId,
-                                     @AuthenticationPrincipal UserDetails principal) {
-        return ticketService.list(projectId, principal.getUsername())
-                .stream()
-                .map(TicketMapper::toResponse)
-                .toList();
+    public ResponseEntity<CursorPage<TicketView>> list(@PathVariable UUID projectId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) TicketState state,
+                                                       @RequestParam(required = false) TicketPriority priority,
+                                                       @RequestParam(required = false) TicketType type,
+                                                       @RequestParam(required = false) UUID assignedUserId,
+                                                       @RequestParam(defaultValue = "false") boolean commentCounts,
+                                                       @AuthenticationPrincipal UserDetails principal,
+                                                       WebRequest request) {
+        String etag = ETags.revision(ticketService.revision(projectId, principal.getUsername()));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        CursorPage<TicketView> page = ticketService.list(projectId, cursor, limit, state, priority, type, assignedUserId,
+                principal.getUsername());
+        if (!commentCounts) {
+            return ResponseEntity.ok().eTag(etag).body(page);
+        }
+        Map<UUID, Long> counts = ticketService.commentCounts(projectId, page.getItems(), principal.getUsername());
+        return ResponseEntity.ok().eTag(etag).body(page.map(t -> t.withCommentCount(counts.get(t.id()))));
     }
 
     // POST /projects/{projectId}/tickets
@@ -62,39 +90,52 @@ public class TicketController {
         );
     }
 
-    // GET /projects/{projectId}/tickets/{ticketId}
+    // POST /projects/{projectId}/tickets:batch
+    @PostMapping("/projects/{projectId}/tickets:batch")
+    @SecurityRequirement(name = "bearerAuth")
+    public TicketBatchResponse batch(@PathVariable UUID projectId,
+                                     @Valid @RequestBody TicketBatchRequest req,
+                                     @AuthenticationPrincipal UserDetails principal) {
+        return ticketService.batch(projectId, req, principal.getUsername());
+    }
+
+    // GET /projects/{projectId}/tickets/{ticketId}  - 304 on a matching If-None-Match, without loading the ticket
     @GetMapping("/projects/{projectId}/tickets/{ticketId}")
     @SecurityRequirement(name = "bearerAuth")
-    public TicketResponse get(@PathVariable UUID projectId,
-                              @PathVariable UUID ticketId,
-                              @AuthenticationPrincipal UserDetails principal) {
-        return TicketMapper.toResponse(
-                ticketService.findByIdAndProjectId(projectId, ticketId, principal.getUsername())
-        );
+    public ResponseEntity<TicketView> get(@PathVariable UUID projectId,
+                                          @PathVariable UUID ticketId,
+                                          @AuthenticationPrincipal UserDetails principal,
+                                          WebRequest request) {
+        if (ETags.notModified(request, () ->
+                ETags.version(ticketService.version(projectId, ticketId, principal.getUsername())))) {
+            return null;
+        }
+        TicketView t = ticketService.findByIdAndProjectId(projectId, ticketId, principal.getUsername());
+        return ResponseEntity.ok().eTag(ETags.version(t.version())).body(t);
     }
 
-    // PUT /projects/{projectId}/tickets/{ticketId}
+    // PUT /projects/{projectId}/tickets/{ticketId}  - 412 if If-Match is not the current ETag
     @PutMapping("/projects/{projectId}/tickets/{ticketId}")
     @SecurityRequirement(name = "bearerAuth")
-    public TicketResponse update(@PathVariable UUID projectId,
-                                 @PathVariable UUID ticketId,
-                                 @Valid @RequestBody TicketRequest req,
-                                 @AuthenticationPrincipal UserDetails principal) {
-        return TicketMapper.toResponse(
-                ticketService.update(projectId, ticketId, req, principal.getUsername())
-        );
+    public ResponseEntity<TicketResponse> update(@PathVariable UUID projectId,
+                                                 @PathVariable UUID ticketId,
+                                                 @Valid @RequestBody TicketRequest req,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @AuthenticationPrincipal UserDetails principal) {
+        return tagged(ticketService.update(projectId, ticketId, req,
+                ETags.expectedVersion(ifMatch), principal.getUsername()));
     }
 
-    // PATCH /projects/{projectId}/tickets/{ticketId}
+    // PATCH /projects/{projectId}/tickets/{ticketId}  - 412 if If-Match is not the current ETag
     @PatchMapping("/projects/{projectId}/tickets/{ticketId}")
     @SecurityRequirement(name = "bearerAuth")
-    public TicketResponse patch(@PathVariable UUID projectId,
-                                @PathVariable UUID ticketId,
-                                @Valid @RequestBody TicketRequest req,
-                                @AuthenticationPrincipal UserDetails principal) {
-        return TicketMapper.toResponse(
-                ticketService.patch(projectId, ticketId, req, principal.getUsername())
-        );
+    public ResponseEntity<TicketResponse> patch(@PathVariable UUID projectId,
+                                                @PathVariable UUID ticketId,
+                                                @Valid @RequestBody TicketRequest req,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @AuthenticationPrincipal UserDetails principal) {
+        return tagged(ticketService.patch(projectId, ticketId, req,
+                ETags.expectedVersion(ifMatch), principal.getUsername()));
     }
 
     // DELETE /projects/{projectId}/tickets/{ticketId}
@@ -111,25 +152,34 @@ public class TicketController {
     @PutMapping("/projects/{projectId}/tickets/{ticketId}/assign/{assignedUserId}")
     @ResponseStatus(HttpStatus.OK)
     @SecurityRequirement(name = "bearerAuth")
-    public TicketResponse assign(@PathVariable UUID projectId,
-                                 @PathVariable UUID ticketId,
-                                 @PathVariable UUID assignedUserId,
-                                 @AuthenticationPrincipal UserDetails principal) {
-        var t = ticketService.assign(projectId, ticketId, assignedUserId, principal.getUsername());
-        return TicketMapper.toResponse(t);
+    public ResponseEntity<TicketResponse> assign(@PathVariable UUID projectId,
+                                                 @PathVariable UUID ticketId,
+                                                 @PathVariable UUID assignedUserId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @AuthenticationPrincipal UserDetails principal) {
+        var t = ticketService.assign(projectId, ticketId, assignedUserId,
+                ETags.expectedVersion(ifMatch), principal.getUsername());
+        return tagged(t);
     }
 
     // --------- COMMENTS ---------
 
-    // GET /projects/{projectId}/tickets/{ticketId}/comments
+    // GET /projects/{projectId}/tickets/{ticketId}/comments?cursor=&limit=  - oldest first
     @GetMapping("/projects/{projectId}/tickets/{ticketId}/comments")
     @SecurityRequirement(name = "bearerAuth")
-    public List<TicketCommentResponse> listComments(@PathVariable UUID projectId,
-                                                    @PathVariable UUID ticketId,
-                                                    @AuthenticationPrincipal UserDetails principal) {
-        return TicketCommentMapper.toResponseList(
-                ticketService.getComments(projectId, ticketId, principal.getUsername())
-        );
+    public ResponseEntity<CursorPage<TicketCommentResponse>> listComments(@PathVariable UUID projectId,
+                                                                          @PathVariable UUID ticketId,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          @AuthenticationPrincipal UserDetails principal,
+                                                                          WebRequest request) {
+        String etag = ETags.revision(ticketService.commentsRevision(projectId, ticketId, principal.getUsername()));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(
+                ticketService.getComments(projectId, ticketId, cursor, limit, principal.getUsername())
+                        .map(TicketCommentMapper::toResponse));
     }
 
     // POST /projects/{projectId}/tickets/{ticketId}/comments
@@ -145,17 +195,18 @@ public class TicketController {
         );
     }
 
-    // PUT /projects/{projectId}/tickets/{ticketId}/comments/{commentId}
+    // PUT /projects/{projectId}/tickets/{ticketId}/comments/{commentId}  - 412 if If-Match is stale
     @PutMapping("/projects/{projectId}/tickets/{ticketId}/comments/{commentId}")
     @SecurityRequirement(name = "bearerAuth")
-    public TicketCommentResponse updateComment(@PathVariable UUID projectId,
-                                               @PathVariable UUID ticketId,
-                                               @PathVariable UUID commentId,
-                                               @Valid @RequestBody TicketCommentRequest req,
-                                               @AuthenticationPrincipal UserDetails principal) {
-        return TicketCommentMapper.toResponse(
-                ticketService.updateComment(projectId, ticketId, commentId, req, principal.getUsername())
-        );
+    public ResponseEntity<TicketCommentResponse> updateComment(@PathVariable UUID projectId,
+                                                               @PathVariable UUID ticketId,
+                                                               @PathVariable UUID commentId,
+                                                               @Valid @RequestBody TicketCommentRequest req,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                               @AuthenticationPrincipal UserDetails principal) {
+        TicketComment c = ticketService.updateComment(projectId, ticketId, commentId, req,
+                ETags.expectedVersion(ifMatch), principal.getUsername());
+        return ResponseEntity.ok().eTag(ETags.version(c.getVersion())).body(TicketCommentMapper.toResponse(c));
     }
 
     // DELETE /projects/{projectId}/tickets/{ticketId}/comments/{commentId}
@@ -171,14 +222,20 @@ public class TicketController {
 
     // --------- HISTORY ---------
 
-    // GET /projects/{projectId}/tickets/{ticketId}/history
+    // GET /projects/{projectId}/tickets/{ticketId}/history?cursor=&limit=&usernames=
     @GetMapping("/projects/{projectId}/tickets/{ticketId}/history")
     @SecurityRequirement(name = "bearerAuth")
-    public List<TicketHistoryResponse> history(@PathVariable UUID projectId,
-                                               @PathVariable UUID ticketId,
-                                               @AuthenticationPrincipal UserDetails principal) {
-        return TicketHistoryMapper.toResponseList(
-                ticketService.history(projectId, ticketId, principal.getUsername())
-        );
+    public CursorPage<TicketHistoryResponse> history(@PathVariable UUID projectId,
+                                                     @PathVariable UUID ticketId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(defaultValue = "false") boolean usernames,
+                                                     @AuthenticationPrincipal UserDetails principal) {
+        return ticketService.history(projectId, ticketId, cursor, limit, usernames, principal.getUsername());
+    }
+
+    // the version is final here, the transaction has been committed
+    private static ResponseEntity<TicketResponse> tagged(Ticket t) {
+        return ResponseEntity.ok().eTag(ETags.version(t.getVersion())).body(TicketMapper.toResponse(t));
     }
 }
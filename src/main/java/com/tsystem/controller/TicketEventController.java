@@ -0,0 +1,50 @@
+package com.tsystem.controller;
+
+import com.tsystem.model.dto.response.StreamTokenResponse;
+import com.tsystem.service.EventStreamTokens;
+import com.tsystem.service.TicketEventStream;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@CrossOrigin(methods = {RequestMethod.GET, RequestMethod.POST})
+public class TicketEventController {
+
+    private final TicketEventStream eventStream;
+    private final EventStreamTokens streamTokens;
+
+    // POST /projects/{projectId}/events/token  - short-lived token for opening the stream below
+    // from a browser EventSource, which cannot send the Authorization header
+    @PostMapping("/projects/{projectId}/events/token")
+    public StreamTokenResponse streamToken(@PathVariable UUID projectId,
+                                           @AuthenticationPrincipal UserDetails principal) {
+        return streamTokens.issue(projectId, principal);
+    }
+
+    // GET /projects/{projectId}/events?token=  - SSE: ticket_created, ticket_updated, ticket_deleted,
+    // comment_created, comment_updated, comment_deleted and reset (reload the list).
+    // Authenticated by the Bearer header or a stream token. Browsers resume with the Last-Event-ID
+    // header; lastEventId is for clients that cannot set it, or that reopen the stream themselves
+    // with a fresh stream token (EventSource's own reconnect reuses the expired one).
+    @GetMapping(value = "/projects/{projectId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable UUID projectId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+                             @RequestParam(value = "token", required = false) String token,
+                             @AuthenticationPrincipal UserDetails principal) {
+        String username = principal != null ? principal.getUsername() : streamTokens.authenticate(token, projectId);
+        return eventStream.subscribe(projectId,
+                lastEventId != null ? lastEventId : lastEventIdParam,
+                username);
+    }
+}
@@ -0,0 +1,15 @@
+package com.tsystem.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String m) {
+        super(m);
+    }
+
+    /** Throws unless {@code expected} (from If-Match, null when absent) is the current version. */
+    public static void check(Long expected, long current) {
+        if (expected != null && expected != current) {
+            throw new PreconditionFailedException(
+                    "Modified since it was read: If-Match is " + expected + ", current version is " + current);
+        }
+    }
+}
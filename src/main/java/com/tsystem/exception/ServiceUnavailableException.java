@@ -0,0 +1,7 @@
+package com.tsystem.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String m) {
+        super(m);
+    }
+}
@@ -0,0 +1,7 @@
+package com.tsystem.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String m) {
+        super(m);
+    }
+}
@@ -0,0 +1,61 @@
+package com.tsystem.model;
+
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One ticket history change reduced to ids and enum ordinals ({@code -1} for null).
+ * This is what the write-behind journal keeps in memory and in ticket_history_outbox.
+ */
+public record HistoryEvent(UUID id,
+                           UUID ticketId,
+                           UUID changedById,
+                           byte oldState,
+                           byte newState,
+                           byte oldPriority,
+                           byte newPriority,
+                           UUID oldAssigneeId,
+                           UUID newAssigneeId,
+                           OffsetDateTime changedAt) {
+
+    private static final TicketState[] STATES = TicketState.values();
+    private static final TicketPriority[] PRIORITIES = TicketPriority.values();
+
+    public static HistoryEvent of(UUID id,
+                                  UUID ticketId,
+                                  UUID changedById,
+                                  TicketState oldState,
+                                  TicketState newState,
+                                  TicketPriority oldPriority,
+                                  TicketPriority newPriority,
+                                  UUID oldAssigneeId,
+                                  UUID newAssigneeId,
+                                  OffsetDateTime changedAt) {
+        return new HistoryEvent(id, ticketId, changedById,
+                ordinal(oldState), ordinal(newState), ordinal(oldPriority), ordinal(newPriority),
+                oldAssigneeId, newAssigneeId, changedAt);
+    }
+
+    public TicketState oldStateValue() {
+        return oldState < 0 ? null : STATES[oldState];
+    }
+
+    public TicketState newStateValue() {
+        return newState < 0 ? null : STATES[newState];
+    }
+
+    public TicketPriority oldPriorityValue() {
+        return oldPriority < 0 ? null : PRIORITIES[oldPriority];
+    }
+
+    public TicketPriority newPriorityValue() {
+        return newPriority < 0 ? null : PRIORITIES[newPriority];
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? -1 : (byte) value.ordinal();
+    }
+}
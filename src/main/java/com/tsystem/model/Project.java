@@ -49,6 +49,15 @@ public class Project {
     @Builder.Default
     private OffsetDateTime createdAt = OffsetDateTime.now();
 
+    // set by a delete; the project is hidden from then on and purged in the background
+    @Column(name = "deleted_at")
+    private OffsetDateTime deletedAt;
+
+    // incremented by Hibernate on every update, the strong ETag of the representation
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
 //    @PrePersist
 //    void prePersist() {
 //        if (createdAt == null) createdAt = OffsetDateTime.now();
@@ -0,0 +1,58 @@
+package com.tsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Number of a project's tickets in one bucket of one dimension, e.g. (state, done) or
+ * (assignee, &lt;user id&gt;); (total, all) counts every ticket. Every counter is split into
+ * {@code ticket.counters.slots} rows; a write adds to one slot and reads sum them, so
+ * concurrent writes to one project rarely wait for the same row. Kept up to date in the
+ * transaction that changes the tickets, written and read with plain JDBC by
+ * {@link com.tsystem.repository.TicketCounterRepository}; mapped here so the table is part of
+ * the schema.
+ */
+@Entity
+// the primary key puts bucket first, reads and writes look up by project
+@Table(name = "project_ticket_counter_slots",
+        indexes = { @Index(name = "idx_ticket_counter_slots_project", columnList = "project_id, dimension, bucket") })
+@IdClass(ProjectTicketCounter.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectTicketCounter {
+
+    @Id
+    @Column(name = "project_id", nullable = false)
+    private UUID projectId;
+
+    @Id
+    @Column(nullable = false, length = 16)
+    private String dimension;
+
+    @Id
+    @Column(nullable = false, length = 40)
+    private String bucket;
+
+    @Id
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private long tickets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID projectId;
+        private String dimension;
+        private String bucket;
+        private int slot;
+    }
+}
@@ -13,7 +13,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "tickets",
         indexes = {
-                @Index(name = "idx_tickets_project", columnList = "project_id"),
+                // keyset pagination of a project's tickets, newest first
+                @Index(name = "idx_tickets_project_created", columnList = "project_id, created_at DESC, id DESC"),
                 @Index(name = "idx_tickets_author", columnList = "author_id")
         })
 @Getter
@@ -68,6 +69,12 @@ public class Ticket {
     @Column(nullable = true)
     private UUID assignedUserId;
 
+    // incremented by Hibernate on every update, the strong ETag of the representation
+    // the default lets ddl-auto add the column to tables that already have rows
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
 //    @PrePersist
 //    void prePersist() {
 //        if (createdAt == null) createdAt = OffsetDateTime.now();
@@ -0,0 +1,12 @@
+package com.tsystem.model;
+
+import com.tsystem.model.enums.TicketChangeType;
+
+import java.util.UUID;
+
+/**
+ * Published by TicketService whenever a ticket or one of its comments is created, changed or
+ * deleted. Carries ids only; listeners reload what they need after the transaction commits.
+ */
+public record TicketChangedEvent(UUID projectId, UUID ticketId, TicketChangeType type) {
+}
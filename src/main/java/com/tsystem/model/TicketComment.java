@@ -10,7 +10,8 @@ import java.util.UUID;
 @Table(
         name = "ticket_comments",
         indexes = {
-                @Index(name = "idx_ticket_comments_ticket", columnList = "ticket_id")
+                // comment pages (keyset on created_at, id) and per-ticket counts
+                @Index(name = "idx_ticket_comments_ticket_created", columnList = "ticket_id, created_at, id")
         }
 )
 @Getter
@@ -36,4 +37,9 @@ public class TicketComment {
     @Column(name = "created_at", nullable = false)
     @Builder.Default
     private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    // incremented by Hibernate on every update, the strong ETag of the representation
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
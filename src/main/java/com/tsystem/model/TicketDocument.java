@@ -0,0 +1,33 @@
+package com.tsystem.model;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Denormalized ticket as it is sent to the external search index. Field names are the snake_case
+ * columns the former Logstash pipeline produced, so existing index mappings and dashboards keep working.
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public record TicketDocument(
+        UUID id,
+        String name,
+        String description,
+        TicketType type,
+        TicketPriority priority,
+        TicketState state,
+        UUID projectId,
+        String projectName,
+        UUID authorId,
+        String authorUsername,
+        UUID assignedUserId,
+        String assigneeUsername,
+        long commentCount,
+        OffsetDateTime createdAt
+) {
+}
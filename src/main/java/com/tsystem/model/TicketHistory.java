@@ -13,7 +13,8 @@ import java.util.UUID;
 @Table(
         name = "ticket_history",
         indexes = {
-                @Index(name = "idx_ticket_history_ticket", columnList = "ticket_id"),
+                // keyset reads of one ticket's history
+                @Index(name = "idx_ticket_history_ticket_changed", columnList = "ticket_id, changed_at, id"),
                 @Index(name = "idx_ticket_history_changed_at", columnList = "changed_at")
         }
 )
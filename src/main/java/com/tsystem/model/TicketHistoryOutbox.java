@@ -0,0 +1,58 @@
+package com.tsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Durable copy of a {@link HistoryEvent} that is not yet in ticket_history. Written and read
+ * with plain JDBC by {@link com.tsystem.repository.HistoryOutboxRepository}; mapped here so the
+ * table is part of the schema. {@code id} is the id the ticket_history row will get.
+ * States and priorities are enum ordinals, so reorder those enums only with an empty outbox.
+ */
+@Entity
+@Table(
+        name = "ticket_history_outbox",
+        indexes = {
+                @Index(name = "idx_ticket_history_outbox_changed_at", columnList = "changed_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketHistoryOutbox {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "ticket_id", nullable = false)
+    private UUID ticketId;
+
+    @Column(name = "changed_by_id", nullable = false)
+    private UUID changedById;
+
+    @Column(name = "old_state", nullable = false)
+    private short oldState;
+
+    @Column(name = "new_state", nullable = false)
+    private short newState;
+
+    @Column(name = "old_priority", nullable = false)
+    private short oldPriority;
+
+    @Column(name = "new_priority", nullable = false)
+    private short newPriority;
+
+    @Column(name = "old_assignee_id")
+    private UUID oldAssigneeId;
+
+    @Column(name = "new_assignee_id")
+    private UUID newAssigneeId;
+
+    @Column(name = "changed_at", nullable = false)
+    private OffsetDateTime changedAt;
+}
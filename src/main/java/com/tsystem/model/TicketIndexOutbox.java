@@ -0,0 +1,36 @@
+package com.tsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A ticket whose search document has to be sent again. Appended in the transaction that changed
+ * the ticket or one of its comments and removed once the document reached the sink. Written and
+ * read with plain JDBC by {@link com.tsystem.repository.IndexOutboxRepository}; mapped here so
+ * the table is part of the schema.
+ */
+@Entity
+@Table(name = "ticket_index_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketIndexOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ticket_id", nullable = false)
+    private UUID ticketId;
+
+    @Column(name = "project_id", nullable = false)
+    private UUID projectId;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.tsystem.model.dto;
+
+import com.tsystem.exception.UnprocessableException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a list ordered by (timestamp, id): the values of the last row on the previous page.
+ * Sent to clients as an opaque url-safe string.
+ */
+public record KeysetCursor(OffsetDateTime at, UUID id) {
+
+    public String encode() {
+        Instant i = at.toInstant();
+        String raw = i.getEpochSecond() + ":" + i.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** @return the decoded cursor, or {@code null} for a missing one (first page) */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(":", 3);
+            Instant at = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new KeysetCursor(at.atOffset(ZoneOffset.UTC), UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new UnprocessableException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.tsystem.model.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshRequest {
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,33 @@
+package com.tsystem.model.dto.request;
+
+import com.tsystem.model.enums.TicketBatchAction;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One item of a ticket batch.
+ * <ul>
+ *   <li>{@code create} - {@code ticket} with at least name and type</li>
+ *   <li>{@code patch} - {@code ticketId} and the non-null fields of {@code ticket}</li>
+ *   <li>{@code assign} - {@code ticketId} and {@code assignedUserId} ({@code null} unassigns)</li>
+ *   <li>{@code delete} - {@code ticketId}</li>
+ * </ul>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketBatchOperation {
+
+    @NotNull
+    private TicketBatchAction op;
+
+    private UUID ticketId;
+    private TicketRequest ticket;
+    private UUID assignedUserId;
+}
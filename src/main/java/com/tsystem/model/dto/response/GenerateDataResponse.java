@@ -0,0 +1,23 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GenerateDataResponse {
+
+    private long users;
+    private long projects;
+    private long tickets;
+    private long comments;
+    private long histories;
+
+    private long totalRows;
+    private long elapsedMs;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,26 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectPurgeProgress {
+
+    private UUID projectId;
+    // waiting | purging
+    private String state;
+    // counted when the purge of the project starts
+    private long ticketsTotal;
+    private long ticketsPurged;
+    private long commentsPurged;
+    private long historyPurged;
+    private OffsetDateTime startedAt;
+}
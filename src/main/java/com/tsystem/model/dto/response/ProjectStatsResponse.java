@@ -0,0 +1,27 @@
+package com.tsystem.model.dto.response;
+
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectStatsResponse {
+
+    private UUID projectId;
+    private long total;
+    private Map<TicketState, Long> byState;
+    private Map<TicketPriority, Long> byPriority;
+    private Map<TicketType, Long> byType;
+    private Map<UUID, Long> byAssignee;
+    private long unassigned;
+}
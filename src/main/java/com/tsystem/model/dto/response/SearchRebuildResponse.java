@@ -0,0 +1,17 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchRebuildResponse {
+
+    private long tickets;
+    private long comments;
+    private long elapsedMs;
+}
@@ -0,0 +1,21 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsDrift {
+
+    private UUID projectId;
+    private String dimension;
+    private String bucket;
+    private long stored;
+    private long counted;
+}
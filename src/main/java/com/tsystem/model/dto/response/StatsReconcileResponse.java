@@ -0,0 +1,22 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsReconcileResponse {
+
+    private long projects;
+    private long driftedProjects;
+    private long driftedCounters;
+    // the first ticket.counters.max-reported-drift differences
+    private List<StatsDrift> drift;
+    private long elapsedMs;
+}
@@ -0,0 +1,14 @@
+package com.tsystem.model.dto.response;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamTokenResponse {
+    // passed as ?token= when opening the project's event stream
+    private String token;
+    // seconds until the token expires; only needed to open the stream, not to keep it open
+    private long expiresIn;
+}
@@ -0,0 +1,21 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketBatchResponse {
+
+    private int succeeded;
+    private int failed;
+
+    // same order as the request's operations
+    private List<TicketBatchResult> results;
+}
@@ -0,0 +1,27 @@
+package com.tsystem.model.dto.response;
+
+import com.tsystem.model.enums.TicketBatchAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one batch item. {@code status} is what the single-ticket endpoint would
+ * have answered (201, 200, 204, 404, 422); {@code ticket} is set for creates, patches and assigns.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketBatchResult {
+
+    private int index;
+    private TicketBatchAction op;
+    private UUID ticketId;
+    private int status;
+    private String error;
+    private TicketResponse ticket;
+}
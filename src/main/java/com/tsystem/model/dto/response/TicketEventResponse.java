@@ -0,0 +1,22 @@
+package com.tsystem.model.dto.response;
+
+import com.tsystem.model.enums.TicketChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketEventResponse {
+
+    private UUID projectId;
+    private UUID ticketId;
+    private TicketChangeType type;
+    private OffsetDateTime at;
+}
@@ -30,4 +30,19 @@ public class TicketHistoryResponse {
     private UUID newAssigneeId;
 
     private OffsetDateTime changedAt;
+
+    // filled only when usernames are requested
+    private String changedByUsername;
+    private String oldAssigneeUsername;
+    private String newAssigneeUsername;
+
+    // constructor projection of the ids-only history query
+    public TicketHistoryResponse(UUID id, UUID ticketId, UUID changedById,
+                                 TicketState oldState, TicketState newState,
+                                 TicketPriority oldPriority, TicketPriority newPriority,
+                                 UUID oldAssigneeId, UUID newAssigneeId,
+                                 OffsetDateTime changedAt) {
+        this(id, ticketId, changedById, oldState, newState, oldPriority, newPriority,
+                oldAssigneeId, newAssigneeId, changedAt, null, null, null);
+    }
 }
@@ -0,0 +1,20 @@
+package com.tsystem.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketSearchHit {
+
+    private UUID ticketId;
+    private UUID projectId;
+    private String name;
+    private float score;
+}
@@ -0,0 +1,45 @@
+package com.tsystem.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Read model of a ticket, serialized like {@link TicketResponse}. Built by a JPQL constructor
+ * expression in {@code TicketReadRepository}, so reads create no entity and nothing for the
+ * persistence context to track.
+ *
+ * @param version       the ETag, not part of the body
+ * @param commentCount  only on list pages requested with {@code commentCounts=true}
+ */
+public record TicketView(UUID id,
+                         String name,
+                         String description,
+                         TicketType type,
+                         TicketPriority priority,
+                         TicketState state,
+                         OffsetDateTime createdAt,
+                         UUID projectId,
+                         UUID userId,
+                         UUID assignedUserId,
+                         @JsonIgnore long version,
+                         @JsonInclude(JsonInclude.Include.NON_NULL) Long commentCount) {
+
+    // used by the JPQL constructor expression
+    public TicketView(UUID id, String name, String description, TicketType type, TicketPriority priority,
+                      TicketState state, OffsetDateTime createdAt, UUID projectId, UUID userId,
+                      UUID assignedUserId, long version) {
+        this(id, name, description, type, priority, state, createdAt, projectId, userId, assignedUserId,
+                version, null);
+    }
+
+    public TicketView withCommentCount(Long count) {
+        return new TicketView(id, name, description, type, priority, state, createdAt, projectId, userId,
+                assignedUserId, version, count);
+    }
+}
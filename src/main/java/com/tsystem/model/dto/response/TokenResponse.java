@@ -7,5 +7,10 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class TokenResponse {
+    // short-lived access token, sent as "Authorization: Bearer"
     private String token;
-}
\ No newline at end of file
+    // seconds until the access token expires
+    private long expiresIn;
+    // single use, exchanged at /api/auth/refresh for a new pair
+    private String refreshToken;
+}
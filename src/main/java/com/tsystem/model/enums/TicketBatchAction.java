@@ -0,0 +1,3 @@
+package com.tsystem.model.enums;
+
+public enum TicketBatchAction { create, patch, assign, delete }
@@ -0,0 +1,7 @@
+package com.tsystem.model.enums;
+
+/** What a {@link com.tsystem.model.TicketChangedEvent} reports; also the SSE event name. */
+public enum TicketChangeType {
+    ticket_created, ticket_updated, ticket_deleted,
+    comment_created, comment_updated, comment_deleted
+}
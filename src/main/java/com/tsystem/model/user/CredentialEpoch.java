@@ -0,0 +1,8 @@
+package com.tsystem.model.user;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** A user's current credential epoch and when it last changed, see {@code CredentialEpochs}. */
+public record CredentialEpoch(UUID userId, long epoch, OffsetDateTime changedAt) {
+}
@@ -17,7 +17,10 @@ public enum SystemPermission {
     USER_CREATE("user:create"),
     USER_READ("user:read"),
     USER_UPDATE("user:update"),
-    USER_DELETE("user:delete");
+    USER_DELETE("user:delete"),
+
+    // actuator endpoints other than health, Prometheus scrapes included
+    METRICS_READ("metrics:read");
 
 
     @Getter
@@ -52,6 +52,12 @@ public class User implements UserDetails {
     @Column(name = "password_changed_at")
     private OffsetDateTime passwordChangedAt;
 
+    // bumped with every credential change; access tokens of an older epoch stop working.
+    // The default lets ddl-auto add the column to a users table that already has rows
+    @Column(name = "credential_epoch", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private long credentialEpoch = 0;
+
 
     @Column(name = "created_at", nullable = false)
     @Builder.Default
@@ -0,0 +1,28 @@
+package com.tsystem.model.user;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims of an access token whose signature and expiration have already been checked.
+ * Produced once per request by {@code JwtService.verify}. {@code epoch} is -1 and
+ * {@code role} and {@code jti} null for tokens issued before they were added.
+ * {@code audience} is null for access tokens and names the one endpoint a scoped token is for.
+ */
+public record VerifiedToken(UUID jti, String username, UUID userId, SystemRole role, long epoch,
+                            Instant issuedAt, Instant expiresAt, String audience) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+
+    /** The authenticated user as far as the token tells, without loading it. */
+    public User principal() {
+        return User.builder()
+                .id(userId)
+                .username(username)
+                .role(role)
+                .credentialEpoch(epoch)
+                .build();
+    }
+}
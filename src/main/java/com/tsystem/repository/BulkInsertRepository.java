@@ -0,0 +1,121 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.Project;
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.TicketHistory;
+import com.tsystem.model.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts for the entity tables. Ids must already be set on the rows;
+ * nothing goes through the persistence context. Meant for bulk loads, where one
+ * {@code save()} per row is far too slow. With PostgreSQL, add
+ * {@code reWriteBatchedInserts=true} to the JDBC url so batches become multi-row inserts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkInsertRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbc;
+
+    public void insertUsers(List<User> rows) {
+        jdbc.batchUpdate("""
+                        insert into users (id, username, email, name, surname, password_hash, role, created_at,
+                                           credential_epoch)
+                        values (?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                rows, BATCH_SIZE, (ps, u) -> {
+                    ps.setObject(1, u.getId());
+                    ps.setString(2, u.getUsername());
+                    ps.setString(3, u.getEmail());
+                    ps.setString(4, u.getName());
+                    ps.setString(5, u.getSurname());
+                    ps.setString(6, u.getPassword());
+                    setEnum(ps, 7, u.getRole());
+                    ps.setObject(8, u.getCreatedAt());
+                    ps.setLong(9, u.getCredentialEpoch());
+                });
+    }
+
+    public void insertProjects(List<Project> rows) {
+        jdbc.batchUpdate("""
+                        insert into projects (id, name, description, status, owner_id, created_at, version)
+                        values (?, ?, ?, ?, ?, ?, ?)""",
+                rows, BATCH_SIZE, (ps, p) -> {
+                    ps.setObject(1, p.getId());
+                    ps.setString(2, p.getName());
+                    ps.setString(3, p.getDescription());
+                    setEnum(ps, 4, p.getStatus());
+                    ps.setObject(5, p.getUser().getId());
+                    ps.setObject(6, p.getCreatedAt());
+                    ps.setLong(7, p.getVersion());
+                });
+    }
+
+    public void insertTickets(List<Ticket> rows) {
+        jdbc.batchUpdate("""
+                        insert into tickets (id, name, description, type, priority, state,
+                                             author_id, project_id, created_at, assigned_user_id, version)
+                        values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                rows, BATCH_SIZE, (ps, t) -> {
+                    ps.setObject(1, t.getId());
+                    ps.setString(2, t.getName());
+                    ps.setString(3, t.getDescription());
+                    setEnum(ps, 4, t.getType());
+                    setEnum(ps, 5, t.getPriority());
+                    setEnum(ps, 6, t.getState());
+                    ps.setObject(7, t.getUserId());
+                    ps.setObject(8, t.getProjectId());
+                    ps.setObject(9, t.getCreatedAt());
+                    ps.setObject(10, t.getAssignedUserId());
+                    ps.setLong(11, t.getVersion());
+                });
+    }
+
+    public void insertComments(List<TicketComment> rows) {
+        jdbc.batchUpdate("""
+                        insert into ticket_comments (id, ticket_id, author_id, body, created_at, version)
+                        values (?, ?, ?, ?, ?, ?)""",
+                rows, BATCH_SIZE, (ps, c) -> {
+                    ps.setObject(1, c.getId());
+                    ps.setObject(2, c.getTicketId());
+                    ps.setObject(3, c.getAuthorId());
+                    ps.setString(4, c.getBody());
+                    ps.setObject(5, c.getCreatedAt());
+                    ps.setLong(6, c.getVersion());
+                });
+    }
+
+    public void insertHistory(List<TicketHistory> rows) {
+        jdbc.batchUpdate("""
+                        insert into ticket_history (id, ticket_id, changed_by_id,
+                                                    old_state, new_state, old_priority, new_priority,
+                                                    old_assignee_id, new_assignee_id, changed_at)
+                        values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                rows, BATCH_SIZE, (ps, h) -> {
+                    ps.setObject(1, h.getId());
+                    ps.setObject(2, h.getTicket().getId());
+                    ps.setObject(3, h.getChangedBy().getId());
+                    setEnum(ps, 4, h.getOldState());
+                    setEnum(ps, 5, h.getNewState());
+                    setEnum(ps, 6, h.getOldPriority());
+                    setEnum(ps, 7, h.getNewPriority());
+                    ps.setObject(8, h.getOldAssignee() != null ? h.getOldAssignee().getId() : null);
+                    ps.setObject(9, h.getNewAssignee() != null ? h.getNewAssignee().getId() : null);
+                    ps.setObject(10, h.getChangedAt());
+                });
+    }
+
+    // enums are stored by name (@Enumerated(EnumType.STRING))
+    private static void setEnum(PreparedStatement ps, int index, Enum<?> value) throws SQLException {
+        ps.setString(index, value != null ? value.name() : null);
+    }
+}
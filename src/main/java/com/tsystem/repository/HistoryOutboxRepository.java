@@ -0,0 +1,111 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.HistoryEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to ticket_history_outbox and the idempotent copy into ticket_history,
+ * used by the write-behind history journal.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HistoryOutboxRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final RowMapper<HistoryEvent> EVENT = (rs, i) -> new HistoryEvent(
+            rs.getObject("id", UUID.class),
+            rs.getObject("ticket_id", UUID.class),
+            rs.getObject("changed_by_id", UUID.class),
+            rs.getByte("old_state"),
+            rs.getByte("new_state"),
+            rs.getByte("old_priority"),
+            rs.getByte("new_priority"),
+            rs.getObject("old_assignee_id", UUID.class),
+            rs.getObject("new_assignee_id", UUID.class),
+            rs.getObject("changed_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbc;
+
+    public void insertOutbox(List<HistoryEvent> events) {
+        jdbc.batchUpdate("""
+                        insert into ticket_history_outbox (id, ticket_id, changed_by_id,
+                                                           old_state, new_state, old_priority, new_priority,
+                                                           old_assignee_id, new_assignee_id, changed_at)
+                        values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+                events, BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, e.id());
+                    ps.setObject(2, e.ticketId());
+                    ps.setObject(3, e.changedById());
+                    ps.setShort(4, e.oldState());
+                    ps.setShort(5, e.newState());
+                    ps.setShort(6, e.oldPriority());
+                    ps.setShort(7, e.newPriority());
+                    ps.setObject(8, e.oldAssigneeId());
+                    ps.setObject(9, e.newAssigneeId());
+                    ps.setObject(10, e.changedAt());
+                });
+    }
+
+    /** Outbox rows older than {@code before}, oldest first. */
+    public List<HistoryEvent> findPending(OffsetDateTime before, int limit) {
+        return jdbc.query("""
+                        select id, ticket_id, changed_by_id, old_state, new_state, old_priority, new_priority,
+                               old_assignee_id, new_assignee_id, changed_at
+                        from ticket_history_outbox
+                        where changed_at < ?
+                        order by changed_at
+                        limit ?""",
+                EVENT, before, limit);
+    }
+
+    /**
+     * Copies events into ticket_history. Safe to repeat for the same event (on conflict do nothing).
+     * Rows of tickets deleted in the meantime are skipped and unknown assignees become null,
+     * the same outcome the synchronous path has.
+     */
+    public void insertHistory(List<HistoryEvent> events) {
+        jdbc.batchUpdate("""
+                        insert into ticket_history (id, ticket_id, changed_by_id,
+                                                    old_state, new_state, old_priority, new_priority,
+                                                    old_assignee_id, new_assignee_id, changed_at)
+                        select ?, t.id, ?, ?, ?, ?, ?,
+                               (select u.id from users u where u.id = ?),
+                               (select u.id from users u where u.id = ?),
+                               ?
+                        from tickets t
+                        where t.id = ?
+                        on conflict (id) do nothing""",
+                events, BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, e.id());
+                    ps.setObject(2, e.changedById());
+                    setEnum(ps, 3, e.oldStateValue());
+                    setEnum(ps, 4, e.newStateValue());
+                    setEnum(ps, 5, e.oldPriorityValue());
+                    setEnum(ps, 6, e.newPriorityValue());
+                    ps.setObject(7, e.oldAssigneeId());
+                    ps.setObject(8, e.newAssigneeId());
+                    ps.setObject(9, e.changedAt());
+                    ps.setObject(10, e.ticketId());
+                });
+    }
+
+    public void deleteOutbox(List<UUID> ids) {
+        jdbc.batchUpdate("delete from ticket_history_outbox where id = ?",
+                ids, BATCH_SIZE, (ps, id) -> ps.setObject(1, id));
+    }
+
+    // ticket_history stores enums by name (@Enumerated(EnumType.STRING))
+    private static void setEnum(PreparedStatement ps, int index, Enum<?> value) throws SQLException {
+        ps.setString(index, value != null ? value.name() : null);
+    }
+}
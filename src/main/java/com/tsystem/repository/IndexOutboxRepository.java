@@ -0,0 +1,107 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.TicketDocument;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access to ticket_index_outbox and the denormalized documents built from it,
+ * used by the external search indexer.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IndexOutboxRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    public record PendingChange(long id, UUID ticketId, OffsetDateTime createdAt) {}
+
+    private static final RowMapper<PendingChange> PENDING = (rs, i) -> new PendingChange(
+            rs.getLong("id"),
+            rs.getObject("ticket_id", UUID.class),
+            rs.getObject("created_at", OffsetDateTime.class));
+
+    private static final RowMapper<TicketDocument> DOCUMENT = (rs, i) -> new TicketDocument(
+            rs.getObject("id", UUID.class),
+            rs.getString("name"),
+            rs.getString("description"),
+            enumValue(rs, "type", TicketType.class),
+            enumValue(rs, "priority", TicketPriority.class),
+            enumValue(rs, "state", TicketState.class),
+            rs.getObject("project_id", UUID.class),
+            rs.getString("project_name"),
+            rs.getObject("author_id", UUID.class),
+            rs.getString("author_username"),
+            rs.getObject("assigned_user_id", UUID.class),
+            rs.getString("assignee_username"),
+            rs.getLong("comment_count"),
+            rs.getObject("created_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    public void insert(Collection<TicketChangedEvent> events, OffsetDateTime at) {
+        jdbc.batchUpdate("insert into ticket_index_outbox (ticket_id, project_id, created_at) values (?, ?, ?)",
+                events, BATCH_SIZE, (ps, e) -> {
+                    ps.setObject(1, e.ticketId());
+                    ps.setObject(2, e.projectId());
+                    ps.setObject(3, at);
+                });
+    }
+
+    /** Queues every existing ticket, for an initial load of an empty external index. */
+    public int insertAll(OffsetDateTime at) {
+        return jdbc.update("""
+                insert into ticket_index_outbox (ticket_id, project_id, created_at)
+                select id, project_id, ? from tickets""", at);
+    }
+
+    /** Oldest outbox rows first. */
+    public List<PendingChange> findPending(int limit) {
+        return jdbc.query("select id, ticket_id, created_at from ticket_index_outbox order by id limit ?",
+                PENDING, limit);
+    }
+
+    public void delete(List<Long> ids) {
+        jdbc.batchUpdate("delete from ticket_index_outbox where id = ?",
+                ids, BATCH_SIZE, (ps, id) -> ps.setLong(1, id));
+    }
+
+    /** Current documents of the given tickets in one query; deleted tickets are simply missing. */
+    public List<TicketDocument> findDocuments(Collection<UUID> ticketIds) {
+        return named.query("""
+                        select t.id, t.name, t.description, t.type, t.priority, t.state,
+                               t.project_id, p.name as project_name,
+                               t.author_id, author.username as author_username,
+                               t.assigned_user_id, assignee.username as assignee_username,
+                               (select count(*) from ticket_comments c where c.ticket_id = t.id) as comment_count,
+                               t.created_at
+                        from tickets t
+                        join projects p on p.id = t.project_id
+                        join users author on author.id = t.author_id
+                        left join users assignee on assignee.id = t.assigned_user_id
+                        where t.id in (:ids)""",
+                Map.of("ids", ticketIds), DOCUMENT);
+    }
+
+    // enums are stored by name (@Enumerated(EnumType.STRING))
+    private static <E extends Enum<E>> E enumValue(ResultSet rs, String column, Class<E> type) throws SQLException {
+        String value = rs.getString(column);
+        return value != null ? Enum.valueOf(type, value) : null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.tsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based deletes behind the project purge and ticket deletes: everything hanging off a chunk
+ * of tickets goes with one statement per table, children before the tickets they reference.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProjectPurgeRepository {
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    /** Deleted projects still waiting for their purge, oldest delete first. */
+    public List<UUID> findDeletedProjectIds(int limit) {
+        return jdbc.queryForList("select id from projects where deleted_at is not null order by deleted_at limit ?",
+                UUID.class, limit);
+    }
+
+    public long countTickets(UUID projectId) {
+        Long count = jdbc.queryForObject("select count(*) from tickets where project_id = ?", Long.class, projectId);
+        return count != null ? count : 0;
+    }
+
+    public List<UUID> findTicketIds(UUID projectId, int limit) {
+        return jdbc.queryForList("select id from tickets where project_id = ? limit ?", UUID.class, projectId, limit);
+    }
+
+    public int deleteComments(Collection<UUID> ticketIds) {
+        return named.update("delete from ticket_comments where ticket_id in (:ids)", Map.of("ids", ticketIds));
+    }
+
+    /** History rows, including those still in the write-behind outbox. */
+    public int deleteHistory(Collection<UUID> ticketIds) {
+        named.update("delete from ticket_history_outbox where ticket_id in (:ids)", Map.of("ids", ticketIds));
+        return named.update("delete from ticket_history where ticket_id in (:ids)", Map.of("ids", ticketIds));
+    }
+
+    public int deleteTickets(Collection<UUID> ticketIds) {
+        return named.update("delete from tickets where id in (:ids)", Map.of("ids", ticketIds));
+    }
+
+    /**
+     * Removes the project row and its counters, only once no ticket is left; a ticket written
+     * by a request that passed its access check just before the delete keeps the project.
+     *
+     * @return whether the project is gone
+     */
+    public boolean deleteProject(UUID projectId) {
+        int deleted = jdbc.update("""
+                        delete from projects
+                        where id = ? and deleted_at is not null
+                          and not exists (select 1 from tickets t where t.project_id = ?)""",
+                projectId, projectId);
+        if (deleted > 0) {
+            jdbc.update("delete from project_ticket_counter_slots where project_id = ?", projectId);
+        }
+        return deleted > 0;
+    }
+}
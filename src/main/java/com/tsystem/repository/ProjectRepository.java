@@ -2,7 +2,10 @@ package com.tsystem.repository;
 
 
 import com.tsystem.model.Project;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +13,36 @@ import java.util.UUID;
 
 public interface ProjectRepository extends JpaRepository<Project, UUID> {
     List<Project> findByUserIdOrderByCreatedAtDesc(UUID ownerId);
+    List<Project> findByUserUsernameAndDeletedAtIsNullOrderByCreatedAtDesc(String username);
     Optional<Project> findByIdAndUserId(UUID id, UUID ownerId);
     Optional<Project> findById(UUID id);
+
+    // --------- AUTHORIZATION (ids only, used by ProjectAccess) ---------
+    // a deleted project is gone for everybody, its owner included
+
+    @Query("""
+            select p.user.id from Project p
+            where p.id = :projectId and p.user.username = :username and p.deletedAt is null""")
+    Optional<UUID> findOwnerId(@Param("projectId") UUID projectId, @Param("username") String username);
+
+    @Query("""
+            select p.user.id from Project p
+            where p.id = :projectId and p.user.username = :username and p.deletedAt is null
+              and exists (select t.id from Ticket t where t.id = :ticketId and t.projectId = p.id)""")
+    Optional<UUID> findOwnerIdWithTicket(@Param("projectId") UUID projectId,
+                                         @Param("username") String username,
+                                         @Param("ticketId") UUID ticketId);
+
+    @Query("select p.user.username from Project p where p.id = :projectId and p.deletedAt is null")
+    Optional<String> findOwnerUsername(@Param("projectId") UUID projectId);
+
+    // ETag of one project, without loading it
+    @Query("select p.version from Project p where p.id = :projectId")
+    Optional<Long> findVersion(@Param("projectId") UUID projectId);
+
+    @Query("select p.id from Project p where p.user.username = :username and p.deletedAt is null")
+    List<UUID> findIdsByOwnerUsername(@Param("username") String username);
+
+    // keyset chunk, used by the streaming export
+    List<Project> findByIdGreaterThanOrderByIdAsc(UUID afterId, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.user.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+
+    // full load, tokens that have not expired yet
+    List<RevokedToken> findByExpiresAtAfter(OffsetDateTime now);
+
+    // incremental load
+    List<RevokedToken> findByRevokedAtAfter(OffsetDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
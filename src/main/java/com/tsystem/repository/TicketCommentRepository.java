@@ -1,14 +1,54 @@
 package com.tsystem.repository;
 
 import com.tsystem.model.TicketComment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface TicketCommentRepository extends JpaRepository<TicketComment, UUID> {
+
+    /** Comments on one ticket and how many there are, see {@link #countByTicketIds}. */
+    interface CommentCount {
+        UUID getTicketId();
+
+        long getCount();
+    }
+
     List<TicketComment> findByTicketIdOrderByCreatedAtAsc(UUID ticketId);
 
+    // keyset pages on (created_at, id), oldest first; both use idx_ticket_comments_ticket_created
+    List<TicketComment> findByTicketIdOrderByCreatedAtAscIdAsc(UUID ticketId, Limit limit);
+
+    @Query("""
+            select c from TicketComment c
+            where c.ticketId = :ticketId
+              and (c.createdAt > :at or (c.createdAt = :at and c.id > :id))
+            order by c.createdAt asc, c.id asc""")
+    List<TicketComment> findPageAfter(@Param("ticketId") UUID ticketId,
+                                      @Param("at") OffsetDateTime at,
+                                      @Param("id") UUID id,
+                                      Limit limit);
+
+    // one grouped query for a page of tickets; tickets without comments are missing
+    @Query("""
+            select c.ticketId as ticketId, count(c) as count
+            from TicketComment c
+            where c.ticketId in :ticketIds
+            group by c.ticketId""")
+    List<CommentCount> countByTicketIds(@Param("ticketIds") Collection<UUID> ticketIds);
+
+    // comments of one chunk of tickets, used by the search index rebuild and updates
+    List<TicketComment> findByTicketIdIn(Collection<UUID> ticketIds);
+
+    // keyset chunk, used by the streaming export
+    List<TicketComment> findByIdGreaterThanOrderByIdAsc(UUID afterId, Limit limit);
+
 }
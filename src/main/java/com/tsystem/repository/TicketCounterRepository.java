@@ -0,0 +1,155 @@
+package com.tsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access to project_ticket_counter_slots, the per-project ticket counts behind
+ * {@code GET /api/projects/{projectId}/stats}. A counter is the sum of its slot rows; writers
+ * add to the slot they are given, so only writers of the same slot queue on a row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TicketCounterRepository {
+
+    /** One counter of a project; ordered so concurrent writers lock rows in the same order. */
+    public record CounterKey(String dimension, String bucket) implements Comparable<CounterKey> {
+        @Override
+        public int compareTo(CounterKey o) {
+            int c = dimension.compareTo(o.dimension);
+            return c != 0 ? c : bucket.compareTo(o.bucket);
+        }
+    }
+
+    public record CounterRow(String dimension, String bucket, long tickets) {
+        public CounterKey key() {
+            return new CounterKey(dimension, bucket);
+        }
+    }
+
+    private static final RowMapper<CounterRow> ROW = (rs, i) -> new CounterRow(
+            rs.getString("dimension"), rs.getString("bucket"), rs.getLong("tickets"));
+
+    private final JdbcTemplate jdbc;
+
+    /** The counters of a project, slots summed. */
+    public List<CounterRow> find(UUID projectId) {
+        return jdbc.query("""
+                        select dimension, bucket, sum(tickets) as tickets from project_ticket_counter_slots
+                        where project_id = ? group by dimension, bucket""",
+                ROW, projectId);
+    }
+
+    /**
+     * The project revision, 0 until the first ticket write; kept in the tickets column like a
+     * count. Each write adds one to a single slot, so the sum grows with every commit.
+     */
+    public long findRevision(UUID projectId) {
+        Long revision = jdbc.queryForObject("""
+                        select coalesce(sum(tickets), 0) from project_ticket_counter_slots
+                        where project_id = ? and dimension = 'revision' and bucket = 'all'""",
+                Long.class, projectId);
+        return revision != null ? revision : 0;
+    }
+
+    /**
+     * One row per slot, not summed, and keeps ticket writes of the project waiting until the
+     * transaction ends.
+     */
+    public List<CounterRow> findForUpdate(UUID projectId) {
+        return jdbc.query("""
+                        select dimension, bucket, tickets from project_ticket_counter_slots
+                        where project_id = ? for update""",
+                ROW, projectId);
+    }
+
+    /**
+     * Adds the deltas to one slot of the counters, creating missing rows. The entries must be
+     * in {@link CounterKey} order. Rows that already exist, the usual case, cost one batched update.
+     */
+    public void add(UUID projectId, int slot, List<Map.Entry<CounterKey, Long>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int[] updated = update(projectId, slot, deltas);
+
+        List<Map.Entry<CounterKey, Long>> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(deltas.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        // a concurrent writer may create the same counter, whoever comes second updates it
+        jdbc.batchUpdate("""
+                        insert into project_ticket_counter_slots (project_id, dimension, bucket, slot, tickets)
+                        values (?, ?, ?, ?, 0)
+                        on conflict do nothing""",
+                missing, missing.size(), (ps, d) -> {
+                    ps.setObject(1, projectId);
+                    ps.setString(2, d.getKey().dimension());
+                    ps.setString(3, d.getKey().bucket());
+                    ps.setInt(4, slot);
+                });
+        update(projectId, slot, missing);
+    }
+
+    private int[] update(UUID projectId, int slot, List<Map.Entry<CounterKey, Long>> deltas) {
+        int[][] counts = jdbc.batchUpdate("""
+                        update project_ticket_counter_slots set tickets = tickets + ?
+                        where project_id = ? and dimension = ? and bucket = ? and slot = ?""",
+                deltas, deltas.size(), (ps, d) -> {
+                    ps.setLong(1, d.getValue());
+                    ps.setObject(2, projectId);
+                    ps.setString(3, d.getKey().dimension());
+                    ps.setString(4, d.getKey().bucket());
+                    ps.setInt(5, slot);
+                });
+        return counts[0];
+    }
+
+    /** The counters as they follow from the tickets table. Enum columns are cast, H2 maps them to ENUM types. */
+    public List<CounterRow> count(UUID projectId) {
+        return jdbc.query("""
+                        select 'total' as dimension, 'all' as bucket, count(*) as tickets
+                        from tickets where project_id = ?
+                        union all
+                        select 'state', cast(state as varchar(16)), count(*) from tickets where project_id = ? group by state
+                        union all
+                        select 'priority', cast(priority as varchar(16)), count(*) from tickets where project_id = ? group by priority
+                        union all
+                        select 'type', cast(type as varchar(16)), count(*) from tickets where project_id = ? group by type
+                        union all
+                        select 'assignee', coalesce(cast(assigned_user_id as varchar(36)), 'none'), count(*)
+                        from tickets where project_id = ? group by assigned_user_id""",
+                ROW, projectId, projectId, projectId, projectId, projectId);
+    }
+
+    /** Replaces the ticket counts of every slot with {@code rows} in slot 0; the project revision is kept. */
+    public void replace(UUID projectId, Collection<CounterRow> rows) {
+        jdbc.update("delete from project_ticket_counter_slots where project_id = ? and dimension <> 'revision'", projectId);
+        jdbc.batchUpdate("insert into project_ticket_counter_slots (project_id, dimension, bucket, slot, tickets) values (?, ?, ?, 0, ?)",
+                rows, Math.max(1, rows.size()), (ps, r) -> {
+                    ps.setObject(1, projectId);
+                    ps.setString(2, r.dimension());
+                    ps.setString(3, r.bucket());
+                    ps.setLong(4, r.tickets());
+                });
+    }
+
+    /** Ids of live projects in id order, for walking every project in chunks. */
+    public List<UUID> findProjectIdsAfter(UUID after, int limit) {
+        return jdbc.queryForList("select id from projects where id > ? and deleted_at is null order by id limit ?",
+                UUID.class, after, limit);
+    }
+}
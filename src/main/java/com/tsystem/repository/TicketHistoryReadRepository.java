@@ -0,0 +1,61 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.dto.KeysetCursor;
+import com.tsystem.model.dto.response.TicketHistoryResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read model for ticket history: one flat query that projects straight into
+ * {@link TicketHistoryResponse}, so no TicketHistory entity or User proxy is ever created.
+ * Ids come from the foreign key columns. With usernames, the three users are left-joined
+ * in the same statement. Pages are keyset pages on (changed_at, id), oldest first.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TicketHistoryReadRepository {
+
+    private static final String IDS = """
+            select new com.tsystem.model.dto.response.TicketHistoryResponse(
+                h.id, h.ticket.id, h.changedBy.id,
+                h.oldState, h.newState, h.oldPriority, h.newPriority,
+                h.oldAssignee.id, h.newAssignee.id, h.changedAt)
+            from TicketHistory h
+            """;
+
+    private static final String WITH_USERNAMES = """
+            select new com.tsystem.model.dto.response.TicketHistoryResponse(
+                h.id, h.ticket.id, cb.id,
+                h.oldState, h.newState, h.oldPriority, h.newPriority,
+                oa.id, na.id, h.changedAt,
+                cb.username, oa.username, na.username)
+            from TicketHistory h
+                join h.changedBy cb
+                left join h.oldAssignee oa
+                left join h.newAssignee na
+            """;
+
+    private final EntityManager em;
+
+    public List<TicketHistoryResponse> findPage(UUID ticketId, KeysetCursor after, int limit, boolean usernames) {
+        StringBuilder jpql = new StringBuilder(usernames ? WITH_USERNAMES : IDS)
+                .append("where h.ticket.id = :ticketId\n");
+        if (after != null) {
+            jpql.append("and (h.changedAt > :at or (h.changedAt = :at and h.id > :id))\n");
+        }
+        jpql.append("order by h.changedAt asc, h.id asc");
+
+        TypedQuery<TicketHistoryResponse> query = em.createQuery(jpql.toString(), TicketHistoryResponse.class)
+                .setParameter("ticketId", ticketId)
+                .setMaxResults(limit);
+        if (after != null) {
+            query.setParameter("at", after.at()).setParameter("id", after.id());
+        }
+        return query.getResultList();
+    }
+}
@@ -1,6 +1,7 @@
 package com.tsystem.repository;
 
 import com.tsystem.model.TicketHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,5 +11,6 @@ import java.util.UUID;
 @Repository
 public interface TicketHistoryRepository extends JpaRepository<TicketHistory, UUID> {
 
-    List<TicketHistory> findByTicket_IdOrderByChangedAtAsc(UUID ticketId);
+    // keyset chunk, used by the streaming export
+    List<TicketHistory> findByIdGreaterThanOrderByIdAsc(UUID afterId, Limit limit);
 }
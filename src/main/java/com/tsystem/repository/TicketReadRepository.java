@@ -0,0 +1,84 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.dto.KeysetCursor;
+import com.tsystem.model.dto.response.TicketView;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read model for ticket lists and details: the columns are projected straight into
+ * {@link TicketView}, so no Ticket entity, entity entry or response copy is created per row.
+ * Only the filters that are set end up in the SQL, so every list variant walks
+ * idx_tickets_project_created in (created_at desc, id desc) order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TicketReadRepository {
+
+    private static final String VIEW = """
+            select new com.tsystem.model.dto.response.TicketView(
+                t.id, t.name, t.description, t.type, t.priority, t.state,
+                t.createdAt, t.projectId, t.userId, t.assignedUserId, t.version)
+            from Ticket t
+            """;
+
+    private final EntityManager em;
+
+    /** One page of a project's tickets, newest first, starting strictly after {@code after}. */
+    public List<TicketView> findPage(UUID projectId,
+                                     TicketState state,
+                                     TicketPriority priority,
+                                     TicketType type,
+                                     UUID assignedUserId,
+                                     KeysetCursor after,
+                                     int limit) {
+        StringBuilder jpql = new StringBuilder(VIEW).append("where t.projectId = :projectId\n");
+        if (state != null) jpql.append("and t.state = :state\n");
+        if (priority != null) jpql.append("and t.priority = :priority\n");
+        if (type != null) jpql.append("and t.type = :type\n");
+        if (assignedUserId != null) jpql.append("and t.assignedUserId = :assignedUserId\n");
+        if (after != null) {
+            jpql.append("and (t.createdAt < :at or (t.createdAt = :at and t.id < :id))\n");
+        }
+        jpql.append("order by t.createdAt desc, t.id desc");
+
+        TypedQuery<TicketView> query = em.createQuery(jpql.toString(), TicketView.class)
+                .setParameter("projectId", projectId)
+                .setMaxResults(limit);
+        if (state != null) query.setParameter("state", state);
+        if (priority != null) query.setParameter("priority", priority);
+        if (type != null) query.setParameter("type", type);
+        if (assignedUserId != null) query.setParameter("assignedUserId", assignedUserId);
+        if (after != null) {
+            query.setParameter("at", after.at()).setParameter("id", after.id());
+        }
+        return query.getResultList();
+    }
+
+    /** Tickets assigned to a user, newest first; tickets of deleted projects not purged yet are left out. */
+    public List<TicketView> findAssigned(UUID userId) {
+        return em.createQuery(VIEW + """
+                        where t.assignedUserId = :userId
+                          and exists (select p.id from Project p where p.id = t.projectId and p.deletedAt is null)
+                        order by t.createdAt desc, t.id desc""", TicketView.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    public Optional<TicketView> findOne(UUID ticketId, UUID projectId) {
+        return em.createQuery(VIEW + "where t.id = :id and t.projectId = :projectId", TicketView.class)
+                .setParameter("id", ticketId)
+                .setParameter("projectId", projectId)
+                .getResultStream()
+                .findFirst();
+    }
+}
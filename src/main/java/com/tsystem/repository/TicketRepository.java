@@ -2,18 +2,36 @@ package com.tsystem.repository;
 
 
 import com.tsystem.model.Ticket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TicketRepository extends JpaRepository<Ticket, UUID> {
-    List<Ticket> findByProjectIdOrderByCreatedAtDesc(UUID projectId);
 
     Optional<List<Ticket>> findByProjectId(UUID projectId);
     Optional<List<Ticket>> findByUserId(UUID userId);
     Optional<Ticket> findByIdAndProjectId(UUID id, UUID projectId);
-    Optional<List<Ticket>> findAllByAssignedUserId(UUID userId);
+    boolean existsByIdAndProjectId(UUID id, UUID projectId);
+    List<Ticket> findByProjectIdAndIdIn(UUID projectId, Collection<UUID> ids);
+
+    // ETag of one ticket, without loading it
+    @Query("select t.version from Ticket t where t.id = :id and t.projectId = :projectId")
+    Optional<Long> findVersion(@Param("id") UUID id, @Param("projectId") UUID projectId);
+
+    // read by the retry of a write that already lost a version check, see OptimisticRetry
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Ticket t where t.id = :id and t.projectId = :projectId")
+    Optional<Ticket> findForUpdate(@Param("id") UUID id, @Param("projectId") UUID projectId);
+
+    // keyset chunk, used by the streaming export
+    List<Ticket> findByIdGreaterThanOrderByIdAsc(UUID afterId, Limit limit);
 
 }
@@ -1,8 +1,18 @@
 package com.tsystem.repository;
+import com.tsystem.model.user.CredentialEpoch;
 import com.tsystem.model.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -10,4 +20,25 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByUsernameOrEmail(String username, String email);
     Optional<User> findByResetTokenId(UUID resetTokenId);
+
+    @Query("select u.id from User u where u.id in :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    // rehash on login: replaces only the hash that was just verified, a concurrent password change wins
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.username = :username and u.password = :oldHash")
+    int replacePasswordHash(@Param("username") String username,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash);
+
+    // credential epochs changed since the given time, polled by CredentialEpochs
+    @Query("""
+            select new com.tsystem.model.user.CredentialEpoch(u.id, u.credentialEpoch, u.passwordChangedAt)
+            from User u
+            where u.passwordChangedAt > :since""")
+    List<CredentialEpoch> findCredentialEpochsChangedAfter(@Param("since") OffsetDateTime since);
+
+    // keyset chunk, used by the streaming export
+    List<User> findByIdGreaterThanOrderByIdAsc(UUID afterId, Limit limit);
 }
\ No newline at end of file
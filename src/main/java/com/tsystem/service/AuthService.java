@@ -2,18 +2,25 @@ package com.tsystem.service;
 
 
 import com.tsystem.exception.ForbiddenException;
+import com.tsystem.exception.UnauthorizedException;
 import com.tsystem.model.dto.request.LoginRequest;
+import com.tsystem.model.dto.request.RefreshRequest;
 import com.tsystem.model.dto.request.RegisterRequest;
 import com.tsystem.model.dto.response.TokenResponse;
 import com.tsystem.model.user.SystemRole;
 import com.tsystem.model.user.User;
+import com.tsystem.model.user.VerifiedToken;
 
 import com.tsystem.model.dto.*;
 import com.tsystem.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,10 +35,15 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokens;
+    private final CredentialEpochs credentialEpochs;
+    private final RevokedTokens revokedTokens;
 
     public TokenResponse register(RegisterRequest request) {
         if (userRepository.existsByUsernameOrEmail(request.getUsername(), request.getEmail())) {
@@ -48,9 +60,7 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-
-        return new TokenResponse(jwtToken);
+        return tokens(user, refreshTokens.issue(user.getId()));
     }
 
 
@@ -69,8 +79,29 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(user.getUsername(), request.getPassword())
         );
 
-        String jwtToken = jwtService.generateToken((UserDetails) user);
-        return new TokenResponse(jwtToken);
+        return tokens(user, refreshTokens.issue(user.getId()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token; the presented
+     * one is used up. The user is loaded so the access token carries the current role and epoch.
+     */
+    public TokenResponse refresh(RefreshRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokens.rotate(request.getRefreshToken());
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        return tokens(user, rotation.refreshToken());
+    }
+
+    /**
+     * Logout: the presented access token is revoked at once, the refresh token, when given,
+     * together with its whole family. Other sessions of the user stay signed in.
+     */
+    public void logout(VerifiedToken token, RefreshRequest request) {
+        revokedTokens.revoke(token.jti(), token.userId(), token.expiresAt());
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokens.revoke(request.getRefreshToken(), token.userId());
+        }
     }
 
     /**
@@ -92,7 +123,7 @@ public class AuthService {
             userRepository.save(u);
 
             // In DEV, it's convenient to log the full token (uuid.code). In production, send it by email.
-            System.out.println("DEV reset token for " + u.getUsername() + " -> " + tokenId + "." + code);
+            log.info("DEV reset token for {} -> {}.{}", u.getUsername(), tokenId, code);
         });
 
     }
@@ -100,6 +131,7 @@ public class AuthService {
     /**
      * Password reset by token (<uuid>.<code>)
      */
+    @Transactional
     public void resetPassword(ResetPassword req) {
         String[] parts = req.getCode().split("\\.", 2);
         if (parts.length != 2) {
@@ -120,6 +152,7 @@ public class AuthService {
 
         u.setPassword(passwordEncoder.encode(req.getNewPassword()));
         u.setPasswordChangedAt(OffsetDateTime.now());
+        u.setCredentialEpoch(u.getCredentialEpoch() + 1);
 
         // invalidate the one-time token
         u.setResetTokenId(null);
@@ -127,9 +160,11 @@ public class AuthService {
         u.setResetCodeExp(null);
 
         userRepository.save(u);
+        credentialsChanged(u);
     }
 
     /** 3) Change the password for the authorized user (check the old one, set a new one) */
+    @Transactional
     public void changePassword(ChangePassword req, String currentUsername) {
         User me = userRepository.findByUsername(currentUsername)
                 .orElseThrow(() -> new IllegalArgumentException("user not found"));
@@ -140,6 +175,7 @@ public class AuthService {
 
         me.setPassword(passwordEncoder.encode(req.getNewPassword()));
         me.setPasswordChangedAt(OffsetDateTime.now());
+        me.setCredentialEpoch(me.getCredentialEpoch() + 1);
 
         // at the same time, we invalidate the potential active reset token
         me.setResetTokenId(null);
@@ -147,6 +183,27 @@ public class AuthService {
         me.setResetCodeExp(null);
 
         userRepository.save(me);
+        credentialsChanged(me);
+    }
+
+    // refresh tokens go in the same transaction as the password; older access tokens stop
+    // working once it commits, at once on this node, on the others after the next epoch poll
+    private void credentialsChanged(User user) {
+        refreshTokens.revokeAll(user.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                credentialEpochs.changed(user.getId(), user.getCredentialEpoch(), user.getPasswordChangedAt());
+            }
+        });
+    }
+
+    private TokenResponse tokens(User user, String refreshToken) {
+        return TokenResponse.builder()
+                .token(jwtService.generateToken(user))
+                .expiresIn(jwtService.getExpiration().toSeconds())
+                .refreshToken(refreshToken)
+                .build();
     }
 
     private static String generateNumericCode(int len) {
@@ -0,0 +1,82 @@
+package com.tsystem.service;
+
+import com.tsystem.model.user.CredentialEpoch;
+import com.tsystem.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Credential epochs of the users whose credentials changed recently, so the JWT filter can
+ * reject access tokens of an older epoch without loading the user. A token is current when
+ * its epoch is not below the one known here.
+ * <p>
+ * Only changes younger than the access token lifetime are kept: once that has passed since a
+ * change, every token of an older epoch has expired on its own, and a missing entry (epoch 0)
+ * accepts all tokens. Changes made on this node apply at once, changes from other nodes after
+ * the next poll ({@code security.epochs.refresh-interval-ms}).
+ */
+@Component
+public class CredentialEpochs {
+
+    // covers clock differences between nodes and changes committed after a poll started
+    private static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    private final UserRepository userRepository;
+    private final Duration retention;
+
+    private final Map<UUID, CredentialEpoch> epochs = new ConcurrentHashMap<>();
+    private volatile OffsetDateTime watermark;
+
+    public CredentialEpochs(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.expiration-ms:900000}") long accessTokenTtlMillis) {
+        this.userRepository = userRepository;
+        this.retention = Duration.ofMillis(accessTokenTtlMillis).plus(OVERLAP);
+        this.watermark = OffsetDateTime.now().minus(retention);
+        Gauge.builder("security.credential.epochs", epochs, Map::size)
+                .description("Recent credential changes held for access token checks")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    /** The user's current epoch, 0 when the credentials did not change within the token lifetime. */
+    public long current(UUID userId) {
+        CredentialEpoch epoch = epochs.get(userId);
+        return epoch != null ? epoch.epoch() : 0;
+    }
+
+    /** Records a change made on this node, after it was committed. */
+    public void changed(UUID userId, long epoch, OffsetDateTime changedAt) {
+        epochs.merge(userId, new CredentialEpoch(userId, epoch, changedAt),
+                (old, now) -> now.epoch() >= old.epoch() ? now : old);
+    }
+
+    @Scheduled(fixedDelayString = "${security.epochs.refresh-interval-ms:5000}")
+    public void refresh() {
+        OffsetDateTime since = watermark;
+        for (CredentialEpoch e : userRepository.findCredentialEpochsChangedAfter(since.minus(OVERLAP))) {
+            changed(e.userId(), e.epoch(), e.changedAt());
+            if (e.changedAt().isAfter(since)) {
+                since = e.changedAt();
+            }
+        }
+        watermark = since;
+
+        OffsetDateTime expired = OffsetDateTime.now().minus(retention);
+        epochs.values().removeIf(e -> e.changedAt().isBefore(expired));
+    }
+}
@@ -0,0 +1,110 @@
+package com.tsystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsystem.model.TicketDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends documents with one {@code _bulk} request per batch to an Elasticsearch-compatible
+ * endpoint (Elasticsearch, OpenSearch). The ticket id is the document id, so repeating a batch
+ * only overwrites. Rejections (429) and server errors fail the batch and it is retried; other
+ * per-document errors are logged and dropped, retrying them would never succeed.
+ */
+public class ElasticsearchTicketSink implements TicketDocumentSink {
+
+    private static final Logger log = LoggerFactory.getLogger(ElasticsearchTicketSink.class);
+
+    private final HttpClient http;
+    private final URI bulkUri;
+    private final String index;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+
+    public ElasticsearchTicketSink(String url, String index, Duration timeout, ObjectMapper objectMapper) {
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.bulkUri = URI.create(url.replaceAll("/+$", "") + "/_bulk");
+        this.index = index;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(List<TicketDocument> upserts, Collection<UUID> deletes) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeBulk(objectMapper, index, upserts, deletes, body);
+
+        HttpRequest request = HttpRequest.newBuilder(bulkUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending to " + bulkUri, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Bulk request to " + bulkUri + " failed with HTTP " + response.statusCode());
+        }
+        checkItems(objectMapper.readTree(response.body()));
+    }
+
+    private void checkItems(JsonNode result) throws IOException {
+        if (!result.path("errors").asBoolean()) {
+            return;
+        }
+        int dropped = 0;
+        for (JsonNode item : result.path("items")) {
+            Map.Entry<String, JsonNode> op = item.fields().next();
+            int status = op.getValue().path("status").asInt();
+            if (status == 429 || status >= 500) {
+                throw new IOException("Bulk item rejected with HTTP " + status + ", retrying the batch");
+            }
+            // deleting a document that was never indexed is fine
+            if (status >= 400 && !("delete".equals(op.getKey()) && status == 404)) {
+                dropped++;
+                log.warn("Search document {} dropped: {}", op.getValue().path("_id").asText(),
+                        op.getValue().path("error"));
+            }
+        }
+        if (dropped > 0) {
+            log.warn("{} search documents were refused by {}", dropped, bulkUri);
+        }
+    }
+
+    /** Writes the batch in the {@code _bulk} NDJSON format: an action line, then the document. */
+    static void writeBulk(ObjectMapper objectMapper, String index, List<TicketDocument> upserts,
+                          Collection<UUID> deletes, OutputStream out) throws IOException {
+        for (TicketDocument doc : upserts) {
+            out.write(action("index", index, doc.id()));
+            out.write(objectMapper.writeValueAsBytes(doc));
+            out.write('\n');
+        }
+        for (UUID id : deletes) {
+            out.write(action("delete", index, id));
+        }
+    }
+
+    private static byte[] action(String op, String index, UUID id) {
+        return ("{\"" + op + "\":{\"_index\":\"" + index + "\",\"_id\":\"" + id + "\"}}\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tsystem.service;
+
+import com.tsystem.exception.UnauthorizedException;
+import com.tsystem.model.dto.response.StreamTokenResponse;
+import com.tsystem.model.user.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Tokens for opening a project's event stream from a browser {@code EventSource}, which cannot
+ * send an Authorization header. A stream token is a JWT scoped to one project's stream and
+ * valid for {@code events.sse.token-ttl}; it is checked like an access token (signature, expiry,
+ * credential epoch, revocation) but accepted nowhere else. It only has to be valid when the
+ * stream is opened, a reconnect needs a fresh one.
+ */
+@Service
+public class EventStreamTokens {
+
+    private static final String AUDIENCE_PREFIX = "events:";
+
+    private final JwtService jwtService;
+    private final CredentialEpochs credentialEpochs;
+    private final RevokedTokens revokedTokens;
+    private final ProjectAccess access;
+    private final Duration ttl;
+
+    public EventStreamTokens(JwtService jwtService,
+                             CredentialEpochs credentialEpochs,
+                             RevokedTokens revokedTokens,
+                             ProjectAccess access,
+                             @Value("${events.sse.token-ttl:60s}") Duration ttl) {
+        this.jwtService = jwtService;
+        this.credentialEpochs = credentialEpochs;
+        this.revokedTokens = revokedTokens;
+        this.access = access;
+        this.ttl = ttl;
+    }
+
+    public StreamTokenResponse issue(UUID projectId, UserDetails principal) {
+        access.requireOwner(projectId, principal.getUsername());
+        return StreamTokenResponse.builder()
+                .token(jwtService.generateScopedToken(principal, AUDIENCE_PREFIX + projectId, ttl))
+                .expiresIn(ttl.toSeconds())
+                .build();
+    }
+
+    /**
+     * @return the username the token was issued to
+     * @throws UnauthorizedException for a missing, invalid or expired token, or one for another project
+     */
+    public String authenticate(String token, UUID projectId) {
+        if (token == null || token.isBlank()) {
+            throw new UnauthorizedException("Missing stream token");
+        }
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new UnauthorizedException("Invalid stream token");
+        }
+        if (!(AUDIENCE_PREFIX + projectId).equals(verified.audience())
+                || !jwtService.isTokenValid(verified, credentialEpochs.current(verified.userId()))
+                || revokedTokens.isRevoked(verified.jti())) {
+            throw new UnauthorizedException("Invalid stream token");
+        }
+        return verified.username();
+    }
+}
@@ -1,50 +1,119 @@
 package com.tsystem.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.tsystem.model.Project;
 import com.tsystem.model.Ticket;
 import com.tsystem.model.TicketComment;
 import com.tsystem.model.TicketHistory;
-import com.tsystem.model.dto.response.ExportDataDto;
+import com.tsystem.model.mapper.TicketHistoryMapper;
 import com.tsystem.model.user.User;
 import com.tsystem.repository.ProjectRepository;
 import com.tsystem.repository.TicketCommentRepository;
 import com.tsystem.repository.TicketHistoryRepository;
 import com.tsystem.repository.TicketRepository;
 import com.tsystem.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class ExportService {
 
+    // smallest uuid, keyset paging starts right after it
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
     private final TicketRepository ticketRepository;
     private final TicketCommentRepository ticketCommentRepository;
     private final TicketHistoryRepository ticketHistoryRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Value("${export.chunk-size:1000}")
+    private int chunkSize;
 
+    /**
+     * Streams the whole database as one JSON document straight into {@code out}.
+     * Rows are read in keyset chunks and the persistence context is cleared after
+     * every chunk, so heap use stays flat no matter how big the data is.
+     * Associations are written as ids (project owner, history ticket/users).
+     */
     @Transactional(readOnly = true)
-    public ExportDataDto getExportData() {
-        return ExportDataDto.builder()
-                .users(userRepository.findAll())
-                .projects(projectRepository.findAll())
-                .tickets(ticketRepository.findAll())
-                .ticketComments(ticketCommentRepository.findAll())
-                .ticketHistories(ticketHistoryRepository.findAll())
-                .build();
+    public void writeExport(OutputStream out) throws IOException {
+        JsonGenerator gen = objectMapper.createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.useDefaultPrettyPrinter();
+
+        gen.writeStartObject();
+        writeArray(gen, "users",
+                userRepository::findByIdGreaterThanOrderByIdAsc, User::getId, JsonGenerator::writeObject);
+        writeArray(gen, "projects",
+                projectRepository::findByIdGreaterThanOrderByIdAsc, Project::getId, ExportService::writeProject);
+        writeArray(gen, "tickets",
+                ticketRepository::findByIdGreaterThanOrderByIdAsc, Ticket::getId, JsonGenerator::writeObject);
+        writeArray(gen, "ticketComments",
+                ticketCommentRepository::findByIdGreaterThanOrderByIdAsc, TicketComment::getId, JsonGenerator::writeObject);
+        writeArray(gen, "ticketHistories",
+                ticketHistoryRepository::findByIdGreaterThanOrderByIdAsc, TicketHistory::getId,
+                (g, h) -> g.writeObject(TicketHistoryMapper.toResponse(h)));
+        gen.writeEndObject();
+
+        gen.close();
+    }
+
+    private <T> void writeArray(JsonGenerator gen,
+                                String field,
+                                BiFunction<UUID, Limit, List<T>> chunkLoader,
+                                Function<T, UUID> idOf,
+                                RowWriter<T> rowWriter) throws IOException {
+        gen.writeArrayFieldStart(field);
+
+        UUID after = FIRST_ID;
+        List<T> chunk;
+        do {
+            chunk = chunkLoader.apply(after, Limit.of(chunkSize));
+            for (T row : chunk) {
+                rowWriter.write(gen, row);
+            }
+            gen.flush();
+
+            if (!chunk.isEmpty()) {
+                after = idOf.apply(chunk.get(chunk.size() - 1));
+            }
+            // drop the chunk from the persistence context before loading the next one
+            entityManager.clear();
+        } while (chunk.size() == chunkSize);
+
+        gen.writeEndArray();
+    }
+
+    private static void writeProject(JsonGenerator gen, Project p) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectField("id", p.getId());
+        gen.writeStringField("name", p.getName());
+        gen.writeStringField("description", p.getDescription());
+        gen.writeObjectField("status", p.getStatus());
+        // proxy id, does not initialize the owner
+        gen.writeObjectField("ownerId", p.getUser().getId());
+        gen.writeObjectField("createdAt", p.getCreatedAt());
+        gen.writeEndObject();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(JsonGenerator gen, T row) throws IOException;
     }
 }
@@ -0,0 +1,41 @@
+package com.tsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsystem.model.TicketDocument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends every batch to a local file in the {@code _bulk} NDJSON format, for tests and local
+ * runs without Elasticsearch. The file can be replayed with
+ * {@code curl -H 'Content-Type: application/x-ndjson' --data-binary @file http://localhost:9200/_bulk}.
+ */
+public class FileTicketSink implements TicketDocumentSink {
+
+    private final Path path;
+    private final String index;
+    private final ObjectMapper objectMapper;
+
+    public FileTicketSink(Path path, String index, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.index = index;
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+    }
+
+    @Override
+    public synchronized void send(List<TicketDocument> upserts, Collection<UUID> deletes) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            ElasticsearchTicketSink.writeBulk(objectMapper, index, upserts, deletes, out);
+        }
+    }
+}
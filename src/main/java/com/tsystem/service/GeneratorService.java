@@ -2,190 +2,301 @@ package com.tsystem.service;
 
 import com.tsystem.model.Project;
 import com.tsystem.model.Ticket;
-import com.tsystem.model.dto.request.ProjectCreateRequest;
-import com.tsystem.model.dto.request.RegisterRequest;
-import com.tsystem.model.dto.request.TicketCommentRequest;
-import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.TicketHistory;
+import com.tsystem.model.dto.response.GenerateDataResponse;
 import com.tsystem.model.enums.TicketPriority;
 import com.tsystem.model.enums.TicketState;
 import com.tsystem.model.enums.TicketType;
 import com.tsystem.model.user.SystemRole;
 import com.tsystem.model.user.User;
-import com.tsystem.repository.UserRepository;
+import com.tsystem.repository.BulkInsertRepository;
 
 import lombok.RequiredArgsConstructor;
 import net.datafaker.Faker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bulk data generator for capacity testing. Rows are built in memory and written with
+ * JDBC batches through {@link BulkInsertRepository}; tickets are generated in chunks on
+ * a worker pool and every chunk commits on its own, so there is no giant transaction.
+ */
 @Service
 @RequiredArgsConstructor
 public class GeneratorService {
 
-    private final AuthService authService;
-    private final UserRepository userRepository;
+    private static final Logger log = LoggerFactory.getLogger(GeneratorService.class);
+
+    private static final String DEFAULT_PASSWORD = "password";
+    private static final int TEXT_POOL_SIZE = 1024;
 
-    private final ProjectService projectService;
-    private final TicketService ticketService;
+    private final BulkInsertRepository bulk;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate tx;
+    private final ProjectStatsService stats;
 
-    private final Faker faker = new Faker(new Locale("en-EN"));
-    private final Random random = new Random();
+    @Value("${generator.threads:0}")
+    private int threads;
+
+    @Value("${generator.chunk-size:5000}")
+    private int chunkSize;
 
     // --------------------------------------------------------------------
     // PUBLIC ENTRY
     // --------------------------------------------------------------------
-    @Transactional
-    public void generateData(int userCount, int projectCount, int ticketsPerUser) {
+    public GenerateDataResponse generateData(int userCount, int projectCount, int ticketsPerUser) {
+        if (userCount < 2) {
+            throw new IllegalStateException("At least 2 users required: project owner + assignee");
+        }
+
+        long started = System.nanoTime();
+        Counters counters = new Counters();
+        TextPool text = new TextPool(new Faker(new Locale("en-EN")));
 
-        List<User> users = generateUsers(userCount);
+        // one hash for everybody, BCrypt per user is what made the old generator slow
+        String passwordHash = passwordEncoder.encode(DEFAULT_PASSWORD);
+
+        List<User> users = generateUsers(userCount, passwordHash, text);
+        inChunks(users, bulk::insertUsers);
+        counters.users.add(users.size());
 
         User owner = users.get(0);                   // A) first = project owner
-        List<User> contributors = users.subList(1, users.size());
+        List<UUID> assignees = users.subList(1, users.size()).stream().map(User::getId).toList();
 
-//        List<Project> projects = generateProjects(owner, contributors, projectCount);
-        List<Project> projects = generateProjects(owner, projectCount);
-        for (Project p : projects) {
-            generateTicketsForProject(p, owner, users, ticketsPerUser);
-        }
+        List<Project> projects = generateProjects(owner, projectCount, text);
+        inChunks(projects, bulk::insertProjects);
+        counters.projects.add(projects.size());
+
+        generateTickets(projects, owner, assignees, (long) ticketsPerUser * userCount, text, counters);
+
+        return report(counters, System.nanoTime() - started);
     }
 
     // --------------------------------------------------------------------
     // USERS
     // --------------------------------------------------------------------
-    private List<User> generateUsers(int count) {
-        return IntStream.range(0, count)
-                .mapToObj(i -> createUser())
-                .collect(Collectors.toList());
-    }
-
-    private User createUser() {
-
-        String username = null;
-        String email = null;
-
-        // --- generate unique username ---
-        while (true) {
-            String candidate = faker.name().username();
-            if (userRepository.findByUsername(candidate).isEmpty()) {
-                username = candidate;
-                break;
-            }
+    private List<User> generateUsers(int count, String passwordHash, TextPool text) {
+        // unique without probing the database: random run tag + sequence number
+        String run = Long.toString(ThreadLocalRandom.current().nextLong(36L * 36 * 36 * 36 * 36 * 36), 36);
+        OffsetDateTime now = OffsetDateTime.now();
+
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "gen_" + run + "_" + i;
+            users.add(User.builder()
+                    .id(UUID.randomUUID())
+                    .username(username)
+                    .email(username + "@example.com")
+                    .name(text.pick(text.firstNames))
+                    .surname(text.pick(text.lastNames))
+                    .password(passwordHash)
+                    .role(SystemRole.SYSTEM_USER)
+                    .createdAt(now)
+                    .build());
         }
-
-        // --- generate unique email ---
-        while (true) {
-            String candidate = faker.internet().emailAddress();
-            if (userRepository.findByEmail(candidate).isEmpty()) {
-                email = candidate;
-                break;
-            }
-        }
-
-        RegisterRequest req = RegisterRequest.builder()
-                .username(username)
-                .email(email)
-                .name(faker.name().firstName())
-                .surname(faker.name().lastName())
-                .password("password")
-                .build();
-
-        authService.register(req);
-
-        // Fix: must use effectively final variable
-        final String finalUsername = username;
-
-        return userRepository.findByUsername(finalUsername)
-                .orElseThrow(() -> new IllegalStateException("Failed to create: " + finalUsername));
+        return users;
     }
 
-
-
     // --------------------------------------------------------------------
     // PROJECTS
     // --------------------------------------------------------------------
-    private List<Project> generateProjects(User owner,  int projectCount) {
-        List<Project> list = new ArrayList<>();
-
+    private List<Project> generateProjects(User owner, int projectCount, TextPool text) {
+        List<Project> list = new ArrayList<>(projectCount);
         for (int i = 0; i < projectCount; i++) {
-
-            ProjectCreateRequest req = ProjectCreateRequest.builder()
-                    .name("Project " + faker.company().industry())
-                    .description(faker.lorem().sentence())
-                    .build();
-
-            Project project = projectService.create(req, owner.getUsername());
-
-            list.add(project);
+            list.add(Project.builder()
+                    .id(UUID.randomUUID())
+                    .name("Project " + text.pick(text.industries))
+                    .description(text.pick(text.sentences))
+                    .user(owner)
+                    .build());
         }
-
         return list;
     }
 
     // --------------------------------------------------------------------
-    // TICKETS + COMMENTS (via TicketService)
+    // TICKETS + COMMENTS + HISTORY
     // --------------------------------------------------------------------
-    private void generateTicketsForProject(Project project, User owner, List<User> allUsers, int ticketsPerUser) {
-
-        List<User> assignees = allUsers.stream()
-                .filter(u -> !u.getId().equals(owner.getId()))
-                .toList();
-
-        if (assignees.isEmpty()) {
-            throw new IllegalStateException("At least 2 users required: project owner + assignee");
-        }
-
-        for (int i = 0; i < ticketsPerUser; i++) {
-            for (User ignored : allUsers) {
-
-                User assigned = assignees.get(random.nextInt(assignees.size()));
-
-                Ticket ticket = createTicket(project, owner, assigned);
-
-                addCommentToTicket(project, ticket, owner);
+    private void generateTickets(List<Project> projects, User owner, List<UUID> assignees,
+                                 long ticketsPerProject, TextPool text, Counters counters) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Project project : projects) {
+                for (long from = 0; from < ticketsPerProject; from += chunkSize) {
+                    int size = (int) Math.min(chunkSize, ticketsPerProject - from);
+                    futures.add(pool.submit(() ->
+                            writeTicketChunk(project, owner, assignees, size, text, counters)));
+                }
+            }
+            for (Future<?> f : futures) {
+                f.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Data generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
         }
     }
 
+    private void writeTicketChunk(Project project, User owner, List<UUID> assignees,
+                                  int size, TextPool text, Counters counters) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        List<Ticket> tickets = new ArrayList<>(size);
+        List<TicketComment> comments = new ArrayList<>(size);
+        List<TicketHistory> history = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            UUID assigned = assignees.get(random.nextInt(assignees.size()));
+
+            Ticket ticket = Ticket.builder()
+                    .id(randomId(random))
+                    .name(text.pick(text.buzzwords) + " " + text.pick(text.words))
+                    .description(text.pick(text.sentences))
+                    .type(randomType(random))
+                    .priority(randomPriority(random))
+                    .state(TicketState.open)
+                    .projectId(project.getId())
+                    .userId(owner.getId())
+                    .assignedUserId(assigned)
+                    .createdAt(now)
+                    .build();
+            tickets.add(ticket);
+
+            // same rows TicketService.create / addComment would have written
+            history.add(TicketHistory.builder()
+                    .id(randomId(random))
+                    .ticket(ticket)
+                    .changedBy(owner)
+                    .newState(ticket.getState())
+                    .newPriority(ticket.getPriority())
+                    .newAssignee(User.builder().id(assigned).build())
+                    .changedAt(now)
+                    .build());
+
+            comments.add(TicketComment.builder()
+                    .id(randomId(random))
+                    .ticketId(ticket.getId())
+                    .authorId(owner.getId())
+                    .body(text.pick(text.sentences))
+                    .createdAt(now)
+                    .build());
+        }
 
+        TicketCounterDelta counts = new TicketCounterDelta(project.getId());
+        tickets.forEach(counts::add);
 
-    private Ticket createTicket(Project project, User creator, User assigned) {
+        tx.executeWithoutResult(status -> {
+            bulk.insertTickets(tickets);
+            bulk.insertHistory(history);
+            bulk.insertComments(comments);
+            stats.apply(counts);
+        });
 
-        TicketRequest req = TicketRequest.builder()
-                .name(faker.company().buzzword() + " " + faker.lorem().word())
-                .description(faker.lorem().sentence())
-                .priority(randomPriority())
-                .state(TicketState.open)
-                .type(randomType())
-                .assignedUserId(assigned.getId())
-                .build();
+        counters.tickets.add(tickets.size());
+        counters.histories.add(history.size());
+        counters.comments.add(comments.size());
+    }
 
-        return ticketService.create(project.getId(), req, creator.getUsername());
+    // version 4 uuid without the shared SecureRandom of UUID.randomUUID(), which all workers would contend on
+    private static UUID randomId(ThreadLocalRandom random) {
+        long msb = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        long lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
     }
 
-    private TicketType randomType() {
+    private static TicketType randomType(Random random) {
         TicketType[] arr = {TicketType.bug, TicketType.task, TicketType.feature};
         return arr[random.nextInt(arr.length)];
     }
 
-    private TicketPriority randomPriority() {
+    private static TicketPriority randomPriority(Random random) {
         TicketPriority[] arr = {TicketPriority.low, TicketPriority.med, TicketPriority.high};
         return arr[random.nextInt(arr.length)];
     }
 
-    private void addCommentToTicket(Project project, Ticket ticket, User author) {
-        TicketCommentRequest req = TicketCommentRequest.builder()
-                .body(faker.lorem().sentence())
+    // --------------------------------------------------------------------
+    // HELPERS
+    // --------------------------------------------------------------------
+    private <T> void inChunks(List<T> rows, Consumer<List<T>> writer) {
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<T> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            tx.executeWithoutResult(status -> writer.accept(chunk));
+        }
+    }
+
+    private GenerateDataResponse report(Counters c, long elapsedNanos) {
+        long total = c.users.sum() + c.projects.sum() + c.tickets.sum() + c.comments.sum() + c.histories.sum();
+        long elapsedMs = Math.max(1, elapsedNanos / 1_000_000);
+
+        GenerateDataResponse response = GenerateDataResponse.builder()
+                .users(c.users.sum())
+                .projects(c.projects.sum())
+                .tickets(c.tickets.sum())
+                .comments(c.comments.sum())
+                .histories(c.histories.sum())
+                .totalRows(total)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(total * 1000 / elapsedMs)
                 .build();
 
-        ticketService.addComment(
-                project.getId(),
-                ticket.getId(),
-                req,
-                author.getUsername()
-        );
+        log.info("Generated {} rows in {} ms ({} rows/sec): {}", total, elapsedMs, response.getRowsPerSecond(), response);
+        return response;
+    }
+
+    private static final class Counters {
+        final LongAdder users = new LongAdder();
+        final LongAdder projects = new LongAdder();
+        final LongAdder tickets = new LongAdder();
+        final LongAdder comments = new LongAdder();
+        final LongAdder histories = new LongAdder();
+    }
+
+    /**
+     * Faker is slow and not thread-safe, so texts are generated once up front and
+     * the worker threads only pick from these read-only pools.
+     */
+    private static final class TextPool {
+        final String[] firstNames = new String[TEXT_POOL_SIZE];
+        final String[] lastNames = new String[TEXT_POOL_SIZE];
+        final String[] industries = new String[TEXT_POOL_SIZE];
+        final String[] buzzwords = new String[TEXT_POOL_SIZE];
+        final String[] words = new String[TEXT_POOL_SIZE];
+        final String[] sentences = new String[TEXT_POOL_SIZE];
+
+        TextPool(Faker faker) {
+            for (int i = 0; i < TEXT_POOL_SIZE; i++) {
+                firstNames[i] = faker.name().firstName();
+                lastNames[i] = faker.name().lastName();
+                industries[i] = faker.company().industry();
+                buzzwords[i] = faker.company().buzzword();
+                words[i] = faker.lorem().word();
+                sentences[i] = faker.lorem().sentence();
+            }
+        }
+
+        String pick(String[] pool) {
+            return pool[ThreadLocalRandom.current().nextInt(pool.length)];
+        }
     }
 }
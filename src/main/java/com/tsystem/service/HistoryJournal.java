@@ -0,0 +1,213 @@
+package com.tsystem.service;
+
+import com.tsystem.model.HistoryEvent;
+import com.tsystem.repository.HistoryOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind mode for ticket history ({@code ticket.history.write-behind=true}).
+ * <p>
+ * {@link #record} writes the events to ticket_history_outbox inside the caller's transaction,
+ * which is one statement instead of user lookups plus one insert per change. After commit
+ * the events are queued, and a single writer thread copies them to ticket_history in
+ * batches and deletes them from the outbox. A full queue blocks the committing thread for
+ * up to {@code ticket.history.offer-timeout}. After that the event stays only in the outbox.
+ * A periodic sweep picks up such events, and also events left over from a crash.
+ * <p>
+ * {@code changed_at} comes from a clock that never repeats or goes backwards. Batches are
+ * written in changed_at order, so the per-ticket order that readers rely on holds whichever
+ * path writes the row.
+ */
+@Component
+public class HistoryJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryJournal.class);
+
+    private final HistoryOutboxRepository outbox;
+    private final TransactionTemplate tx;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final Duration sweepAge;
+
+    private final BlockingQueue<HistoryEvent> queue;
+    private final Timer flushTimer;
+    private final Counter flushed;
+    private final Counter overflow;
+
+    // last handed out changed_at, in microseconds (what PostgreSQL keeps)
+    private final AtomicLong lastMicros = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public HistoryJournal(HistoryOutboxRepository outbox,
+                          TransactionTemplate tx,
+                          MeterRegistry meterRegistry,
+                          @Value("${ticket.history.write-behind:false}") boolean enabled,
+                          @Value("${ticket.history.queue-capacity:10000}") int queueCapacity,
+                          @Value("${ticket.history.batch-size:500}") int batchSize,
+                          @Value("${ticket.history.offer-timeout:200ms}") Duration offerTimeout,
+                          @Value("${ticket.history.sweep-age:1m}") Duration sweepAge) {
+        this.outbox = outbox;
+        this.tx = tx;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.sweepAge = sweepAge;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("ticket.history.queue.depth", queue, BlockingQueue::size)
+                .description("History events waiting for the write-behind writer")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("ticket.history.flush")
+                .description("Time to write one batch of history events")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("ticket.history.flushed")
+                .description("History events written by the write-behind writer")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("ticket.history.overflow")
+                .description("History events left to the outbox sweep because the queue stayed full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Strictly increasing timestamp for changed_at. */
+    public OffsetDateTime nextChangedAt() {
+        Instant now = Instant.now();
+        long micros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+        long next = lastMicros.accumulateAndGet(micros, (last, candidate) -> Math.max(last + 1, candidate));
+        return Instant.ofEpochSecond(next / 1_000_000, (next % 1_000_000) * 1_000).atOffset(ZoneOffset.UTC);
+    }
+
+    /** Stores the events in the outbox as part of the current transaction and queues them after commit. */
+    public void record(List<HistoryEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        outbox.insertOutbox(events);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(events);
+                }
+            });
+        } else {
+            enqueue(events);
+        }
+    }
+
+    private void enqueue(List<HistoryEvent> events) {
+        try {
+            for (HistoryEvent e : events) {
+                // backpressure: the committing request waits for the writer, up to offerTimeout
+                if (!queue.offer(e, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    overflow.increment();
+                }
+            }
+        } catch (InterruptedException ex) {
+            // whatever was not queued is still in the outbox
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<HistoryEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                HistoryEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // the events stay in the outbox and the sweep retries them
+                log.warn("Writing {} history events failed, leaving them to the outbox sweep", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<HistoryEvent> batch) {
+        batch.sort(Comparator.comparing(HistoryEvent::changedAt));
+        flushTimer.record(() -> tx.executeWithoutResult(status -> {
+            outbox.insertHistory(batch);
+            outbox.deleteOutbox(batch.stream().map(HistoryEvent::id).toList());
+        }));
+        flushed.increment(batch.size());
+    }
+
+    /** Writes outbox rows the queue never delivered (overflow, failed batch, restart). */
+    @Scheduled(fixedDelayString = "${ticket.history.sweep-interval-ms:30000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        OffsetDateTime before = OffsetDateTime.now().minus(sweepAge);
+        List<HistoryEvent> pending;
+        do {
+            pending = new ArrayList<>(outbox.findPending(before, batchSize));
+            if (!pending.isEmpty()) {
+                flush(pending);
+                log.info("Outbox sweep wrote {} history events", pending.size());
+            }
+        } while (pending.size() == batchSize);
+    }
+}
@@ -1,22 +1,40 @@
 package com.tsystem.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tsystem.model.user.SystemRole;
 import com.tsystem.model.user.User;
 
+import com.tsystem.model.user.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 
 @Service
@@ -24,6 +42,10 @@ import java.util.function.Function;
 
 public class JwtService {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+
+    private final MeterRegistry meterRegistry;
+
     private static String SECRET_KEY;
 
     @Value("${jwt.secret-key}")
@@ -33,27 +55,66 @@ public class JwtService {
 
     private static int JWT_EXPIRATION_TIME;
 
-    @Value("${jwt.expiration-ms}")
+    // short, clients renew the access token with their refresh token
+    @Value("${jwt.expiration-ms:900000}")
     private void setJwtExpirationTime(int jwtExpirationTime) {
         JWT_EXPIRATION_TIME = jwtExpirationTime;
     }
 
+    // recently verified tokens, 0 disables the cache
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // built once, both are immutable and thread-safe
+    private Key signInKey;
+    private JwtParser parser;
+
+    // sha-256(token) -> claims, each entry lives until the token's exp
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    // jwt.verify{cache=hit|miss}, a miss is a full parse + HMAC check
+    private Timer verifyHit;
+    private Timer verifyMiss;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+
+        if (verifiedCacheSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheSize)
+                    .expireAfter(Expiry.creating((String key, VerifiedToken token) ->
+                            Duration.between(Instant.now(), token.expiresAt())))
+                    .build();
+        }
 
-    public String extractUsername(String jwt) {
-        return extractClaim(jwt, Claims::getSubject);
+        verifyHit = Timer.builder("jwt.verify").tag("cache", "hit")
+                .publishPercentileHistogram().register(meterRegistry);
+        verifyMiss = Timer.builder("jwt.verify").tag("cache", "miss")
+                .publishPercentileHistogram().register(meterRegistry);
     }
 
-    public Date extractIssuedAt(String jwt) {
-        return extractClaim(jwt, Claims::getIssuedAt);
-    }
 
-    public <T> T extractClaim(String jwt, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(jwt);
-        return claimsResolver.apply(claims);
+    /**
+     * Access token with the user's id, role and credential epoch, enough for the filter to
+     * authenticate the request without loading the user.
+     */
+    public String generateToken(UserDetails userDetails) {
+        return generateToken(userClaims(userDetails), userDetails, null, JWT_EXPIRATION_TIME);
     }
 
+    /**
+     * Token for a single endpoint, named by {@code audience}; the JWT filter does not accept it
+     * as an access token. For clients that can only pass it in the URL, so keep it short-lived.
+     */
+    public String generateScopedToken(UserDetails userDetails, String audience, Duration ttl) {
+        return generateToken(userClaims(userDetails), userDetails, audience, ttl.toMillis());
+    }
 
-    public String generateToken(UserDetails userDetails) {
+    private static Map<String, Object> userClaims(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         // to check if userDetails is instance of User
         if (!(userDetails instanceof User)) {
@@ -65,63 +126,93 @@ public class JwtService {
             throw new IllegalArgumentException("User ID cannot be null");
         }
         claims.put("userId", user.getId());
-        System.out.println("Generating token with claims: " + claims);
-        return generateToken(claims, userDetails);
+        claims.put("role", user.getRole().name());
+        claims.put("epoch", user.getCredentialEpoch());
+        log.debug("Generating token with claims: {}", claims);
+        return claims;
+    }
+
+    /** Lifetime of access tokens, {@code jwt.expiration-ms}. */
+    public Duration getExpiration() {
+        return Duration.ofMillis(JWT_EXPIRATION_TIME);
     }
 
-    private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+    private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, String audience,
+                                 long expirationMs) {
         //  int i = 7 * 24 * 60 * 60 * 1000;
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
+                .setAudience(audience)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION_TIME))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Parses the token once and checks signature and expiration.
+     * A token seen before is answered from the cache without touching HMAC.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String jwt) {
+        long start = System.nanoTime();
+        if (verifiedTokens == null) {
+            VerifiedToken token = parse(jwt);
+            verifyMiss.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return token;
+        }
 
-
-public boolean isTokenValid(String jwt, User user) {
-    try {
-        final String username = extractUsername(jwt);
-        if (username == null || !username.equals(user.getUsername())) return false;
-        if (isTokenExpired(jwt)) return false;
-
-        Date iat = extractIssuedAt(jwt);
-        if (iat != null && user.getPasswordChangedAt() != null
-                && iat.toInstant().isBefore(user.getPasswordChangedAt().toInstant())) {
-            return false;
+        String key = tokenHash(jwt);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            verifyHit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
         }
-        return true;
-    } catch (Exception e) {
-        return false;
-    }
-}
-    private boolean isTokenExpired(String jwt) {
 
-        return extractExpiration(jwt).before(new Date());
+        VerifiedToken token = parse(jwt);
+        if (token.expiresAt() != null) {
+            verifiedTokens.put(key, token);
+        }
+        verifyMiss.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
-    private Date extractExpiration(String jwt) {
-        return extractClaim(jwt, Claims::getExpiration);
+    /**
+     * Checks verified claims against the user's current credential epoch, see
+     * {@link CredentialEpochs}. Tokens without id, epoch or role are no longer accepted.
+     */
+    public boolean isTokenValid(VerifiedToken token, long currentEpoch) {
+        if (token.jti() == null || token.username() == null || token.userId() == null || token.role() == null) return false;
+        if (token.isExpired(Instant.now())) return false;
+        return token.epoch() >= 0 && token.epoch() >= currentEpoch;
     }
 
-
-    private Claims extractAllClaims(String jwt) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(jwt)
-                .getBody();
-
+    private VerifiedToken parse(String jwt) {
+        Claims claims = parser.parseClaimsJws(jwt).getBody();
+
+        String userId = claims.get("userId", String.class);
+        String role = claims.get("role", String.class);
+        Number epoch = claims.get("epoch", Number.class);
+        return new VerifiedToken(
+                claims.getId() != null ? UUID.fromString(claims.getId()) : null,
+                claims.getSubject(),
+                userId != null ? UUID.fromString(userId) : null,
+                role != null ? SystemRole.valueOf(role) : null,
+                epoch != null ? epoch.longValue() : -1,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                claims.getAudience());
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String tokenHash(String jwt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.tsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and runs it again when the {@code @Version}
+ * check at commit finds that somebody else wrote the row in between. Only for work that is
+ * idempotent when repeated on fresh data (setting fields to given values), never for work
+ * the caller made conditional with If-Match.
+ * <p>
+ * Pauses grow from {@code ticket.optimistic.backoff} up to {@code ticket.optimistic.max-backoff}
+ * with full jitter, so writers that collided once spread out. After
+ * {@code ticket.optimistic.max-attempts} the conflict goes to the caller (409).
+ * <p>
+ * Plain optimistic retries are not fair: a writer that lost sleeps while fresh writers go ahead,
+ * and on a hot ticket it can lose every time. Work given as an {@link Attempt} is therefore told
+ * to lock the row it reads once it has lost a conflict; the locked read sees the latest version
+ * and nobody can write in between, so the retry commits. The first attempt locks nothing.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Counter retried;
+    private final Counter exhausted;
+    private final DistributionSummary attempts;
+
+    public OptimisticRetry(TransactionTemplate tx,
+                           MeterRegistry meterRegistry,
+                           @Value("${ticket.optimistic.max-attempts:10}") int maxAttempts,
+                           @Value("${ticket.optimistic.backoff:2ms}") Duration backoff,
+                           @Value("${ticket.optimistic.max-backoff:50ms}") Duration maxBackoff) {
+        this.tx = tx;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(1, backoff.toMillis());
+        this.maxBackoffMillis = Math.max(backoffMillis, maxBackoff.toMillis());
+
+        this.retried = conflicts(meterRegistry, "retried");
+        this.exhausted = conflicts(meterRegistry, "exhausted");
+        this.attempts = DistributionSummary.builder("optimistic.attempts")
+                .description("Attempts a retried write needed until it committed")
+                .register(meterRegistry);
+    }
+
+    private static Counter conflicts(MeterRegistry registry, String outcome) {
+        return Counter.builder("optimistic.conflicts")
+                .description("Writes that lost a @Version check, run again or given up")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /** One attempt of a retried write; {@code lock} asks it to read its row with a write lock. */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run(boolean lock);
+    }
+
+    /**
+     * Runs {@code work} in a new transaction, retrying it on version conflicts when {@code retry}
+     * is true. Must not be called inside a transaction: the conflict surfaces at commit.
+     */
+    public <T> T run(boolean retry, Supplier<T> work) {
+        return run(retry, lock -> work.get());
+    }
+
+    /** As {@link #run(boolean, Supplier)}, with the attempts after a conflict reading under a lock. */
+    public <T> T run(boolean retry, Attempt<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            boolean lock = attempt > 1;
+            try {
+                T result = tx.execute(status -> work.run(lock));
+                if (attempt > 1) {
+                    attempts.record(attempt);
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                if (!retry || attempt >= maxAttempts) {
+                    if (retry) {
+                        exhausted.increment();
+                        log.info("Version conflict persisted after {} attempts", attempt);
+                    }
+                    throw e;
+                }
+                retried.increment();
+                pause(attempt);
+            }
+        }
+    }
+
+    private void pause(int attempt) {
+        long cap = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tsystem.exception.ForbiddenException;
+import com.tsystem.exception.NotFoundException;
+import com.tsystem.repository.ProjectRepository;
+import com.tsystem.repository.TicketRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Ownership checks for project-scoped endpoints. A check is one indexed query that returns
+ * only the owner id (which, for a passing check, is the caller's id), and a passing
+ * (user, project) grant is cached for {@code security.project-grants.ttl}.
+ * The failure path runs one more query to tell 404 from 403.
+ * Grants must be evicted with {@link #invalidateProject} when a project is deleted.
+ * <p>
+ * The cache is per node and the eviction is not broadcast: behind a load balancer the other
+ * nodes keep passing the owner's checks on a deleted project for up to the TTL. That is why
+ * the TTL is seconds; it still absorbs the checks of a burst of requests (a list, then the
+ * ticket opened from it), which is most of what the cache is for.
+ */
+@Component
+public class ProjectAccess {
+
+    private record Grant(String username, UUID projectId) {}
+
+    private final ProjectRepository projects;
+    private final TicketRepository tickets;
+
+    // (username, project) -> owner user id
+    private final Cache<Grant, UUID> grants;
+
+    public ProjectAccess(ProjectRepository projects,
+                         TicketRepository tickets,
+                         MeterRegistry meterRegistry,
+                         @Value("${security.project-grants.max-size:10000}") long maxSize,
+                         // upper bound on a stale grant on the nodes that did not handle the delete
+                         @Value("${security.project-grants.ttl:10s}") Duration ttl) {
+        this.projects = projects;
+        this.tickets = tickets;
+        this.grants = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, grants, "project-grants");
+    }
+
+    /**
+     * @return the id of the caller, who owns the project
+     * @throws NotFoundException  if the project does not exist
+     * @throws ForbiddenException if it belongs to somebody else
+     */
+    public UUID requireOwner(UUID projectId, String username) {
+        Grant grant = new Grant(username, projectId);
+        UUID ownerId = grants.getIfPresent(grant);
+        if (ownerId != null) {
+            return ownerId;
+        }
+
+        ownerId = projects.findOwnerId(projectId, username)
+                .orElseThrow(() -> denied(projectId));
+        grants.put(grant, ownerId);
+        return ownerId;
+    }
+
+    /**
+     * Same as {@link #requireOwner}, and additionally the ticket must belong to the project.
+     *
+     * @throws NotFoundException also if the ticket is not in this project
+     */
+    public UUID requireTicket(UUID projectId, UUID ticketId, String username) {
+        Grant grant = new Grant(username, projectId);
+        UUID ownerId = grants.getIfPresent(grant);
+        if (ownerId != null) {
+            if (!tickets.existsByIdAndProjectId(ticketId, projectId)) {
+                throw new NotFoundException();
+            }
+            return ownerId;
+        }
+
+        var found = projects.findOwnerIdWithTicket(projectId, username, ticketId);
+        if (found.isEmpty()) {
+            // the project check alone caches the grant if only the ticket was missing
+            requireOwner(projectId, username);
+            throw new NotFoundException();
+        }
+        grants.put(grant, found.get());
+        return found.get();
+    }
+
+    public void invalidateProject(UUID projectId) {
+        grants.asMap().keySet().removeIf(g -> g.projectId().equals(projectId));
+    }
+
+    private RuntimeException denied(UUID projectId) {
+        return projects.findOwnerUsername(projectId).isPresent()
+                ? new ForbiddenException()
+                : new NotFoundException();
+    }
+}
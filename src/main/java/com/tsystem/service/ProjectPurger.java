@@ -0,0 +1,221 @@
+package com.tsystem.service;
+
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.dto.response.ProjectPurgeProgress;
+import com.tsystem.model.enums.TicketChangeType;
+import com.tsystem.repository.ProjectPurgeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes deleted projects. {@link ProjectService#delete} only marks the project, which hides
+ * it at once; the "project-purger" thread then deletes its comments, history and tickets
+ * {@code project.purge.chunk-size} tickets at a time, one short transaction per chunk, and
+ * pauses {@code project.purge.pause} between chunks so foreground requests keep their
+ * connections and locks. The project row and its counters go last.
+ * <p>
+ * Deletions are picked up from the projects table, so a purge interrupted by a restart simply
+ * continues. Purged tickets are published as {@link TicketChangedEvent}s, which takes them out
+ * of the search indexes.
+ */
+@Component
+public class ProjectPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectPurger.class);
+
+    private static final int PROJECTS_PER_ROUND = 100;
+
+    private record Chunk(int tickets, int comments, int history) {
+        static final Chunk EMPTY = new Chunk(0, 0, 0);
+    }
+
+    private final ProjectPurgeRepository purge;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+
+    private final int chunkSize;
+    private final Duration pause;
+    private final Duration interval;
+
+    private final Counter purgedTickets;
+    private final Counter purgedComments;
+    private final Counter purgedHistory;
+    private final Counter purgedProjects;
+
+    // deleted projects seen by the latest round
+    private final Map<UUID, ProjectPurgeProgress> progress = new ConcurrentHashMap<>();
+    private final Semaphore wakeups = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ProjectPurger(ProjectPurgeRepository purge,
+                         TransactionTemplate tx,
+                         ApplicationEventPublisher events,
+                         MeterRegistry meterRegistry,
+                         @Value("${project.purge.chunk-size:500}") int chunkSize,
+                         @Value("${project.purge.pause:50ms}") Duration pause,
+                         @Value("${project.purge.interval:1m}") Duration interval) {
+        this.purge = purge;
+        this.tx = tx;
+        this.events = events;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.interval = interval;
+
+        this.purgedTickets = purged(meterRegistry, "tickets");
+        this.purgedComments = purged(meterRegistry, "ticket_comments");
+        this.purgedHistory = purged(meterRegistry, "ticket_history");
+        this.purgedProjects = purged(meterRegistry, "projects");
+        Gauge.builder("project.purge.pending", progress, Map::size)
+                .description("Deleted projects whose rows are not purged yet")
+                .register(meterRegistry);
+    }
+
+    private static Counter purged(MeterRegistry registry, String table) {
+        return Counter.builder("project.purge.rows")
+                .description("Rows removed by the project purge")
+                .tag("table", table)
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::workLoop, "project-purger");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /** Starts the next round now instead of after {@code project.purge.interval}. */
+    public void wake() {
+        wakeups.release();
+    }
+
+    /** Projects of the current round, the one being purged first. */
+    public List<ProjectPurgeProgress> progress() {
+        List<ProjectPurgeProgress> list = new ArrayList<>();
+        progress.values().forEach(p -> {
+            synchronized (p) {
+                list.add(new ProjectPurgeProgress(p.getProjectId(), p.getState(), p.getTicketsTotal(),
+                        p.getTicketsPurged(), p.getCommentsPurged(), p.getHistoryPurged(), p.getStartedAt()));
+            }
+        });
+        list.sort(Comparator.comparing(p -> !"purging".equals(p.getState())));
+        return list;
+    }
+
+    // --------- WORKER ---------
+
+    private void workLoop() {
+        while (running) {
+            try {
+                purgeDeleted();
+                wakeups.tryAcquire(interval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeups.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // what is deleted stays deleted, the next round continues from there
+                log.warn("Project purge failed, retrying in {}", interval, e);
+                try {
+                    Thread.sleep(interval.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void purgeDeleted() throws InterruptedException {
+        List<UUID> deleted = purge.findDeletedProjectIds(PROJECTS_PER_ROUND);
+        progress.keySet().retainAll(deleted);
+        deleted.forEach(id -> progress.computeIfAbsent(id, k -> ProjectPurgeProgress.builder()
+                .projectId(k)
+                .state("waiting")
+                .build()));
+
+        for (UUID projectId : deleted) {
+            if (!running) {
+                return;
+            }
+            purgeProject(projectId);
+        }
+    }
+
+    private void purgeProject(UUID projectId) throws InterruptedException {
+        ProjectPurgeProgress p = progress.get(projectId);
+        long total = purge.countTickets(projectId);
+        synchronized (p) {
+            p.setState("purging");
+            p.setTicketsTotal(total);
+            p.setStartedAt(OffsetDateTime.now());
+        }
+        long started = System.nanoTime();
+
+        Chunk chunk;
+        do {
+            chunk = tx.execute(status -> purgeChunk(projectId));
+            purgedComments.increment(chunk.comments());
+            purgedHistory.increment(chunk.history());
+            purgedTickets.increment(chunk.tickets());
+            synchronized (p) {
+                p.setTicketsPurged(p.getTicketsPurged() + chunk.tickets());
+                p.setCommentsPurged(p.getCommentsPurged() + chunk.comments());
+                p.setHistoryPurged(p.getHistoryPurged() + chunk.history());
+            }
+            if (chunk.tickets() > 0) {
+                Thread.sleep(pause.toMillis());
+            }
+        } while (chunk.tickets() > 0 && running);
+
+        if (chunk.tickets() == 0 && Boolean.TRUE.equals(tx.execute(status -> purge.deleteProject(projectId)))) {
+            progress.remove(projectId);
+            purgedProjects.increment();
+            log.info("Project {} purged: {} tickets, {} comments, {} history rows in {} ms",
+                    projectId, p.getTicketsPurged(), p.getCommentsPurged(), p.getHistoryPurged(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private Chunk purgeChunk(UUID projectId) {
+        List<UUID> ids = purge.findTicketIds(projectId, chunkSize);
+        if (ids.isEmpty()) {
+            return Chunk.EMPTY;
+        }
+        int comments = purge.deleteComments(ids);
+        int history = purge.deleteHistory(ids);
+        int tickets = purge.deleteTickets(ids);
+        ids.forEach(id -> events.publishEvent(new TicketChangedEvent(projectId, id, TicketChangeType.ticket_deleted)));
+        return new Chunk(tickets, comments, history);
+    }
+}
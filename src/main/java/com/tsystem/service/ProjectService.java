@@ -1,6 +1,7 @@
 package com.tsystem.service;
 
 import com.tsystem.exception.NotFoundException;
+import com.tsystem.exception.PreconditionFailedException;
 import com.tsystem.model.Project;
 import com.tsystem.model.dto.request.ProjectPatchRequest;
 import com.tsystem.model.user.User;
@@ -12,18 +13,22 @@ import com.tsystem.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
-import com.tsystem.exception.ForbiddenException;
-
 @Service
 @RequiredArgsConstructor
 public class ProjectService {
 
     private final ProjectRepository projects;
     private final UserRepository users;
+    private final ProjectAccess access;
+    private final ProjectPurger purger;
+    private final OptimisticRetry retry;
 
     @Transactional
     public Project create(ProjectCreateRequest req, String username) {
@@ -38,7 +43,7 @@ public class ProjectService {
 
     @Transactional(readOnly = true)
     public List<Project> findByUserIdOrderByCreatedAtDesc(String username) {
-        return projects.findByUserIdOrderByCreatedAtDesc(me(username).getId());
+        return projects.findByUserUsernameAndDeletedAtIsNullOrderByCreatedAtDesc(username);
     }
 
     @Transactional(readOnly = true)
@@ -46,17 +51,33 @@ public class ProjectService {
         return mustOwnProject(projectId, username);
     }
 
-    @Transactional
-    public Project update(UUID projectId, ProjectUpdateRequest req, String username) {
+    /** The project's version without loading it, for conditional GETs. */
+    @Transactional(readOnly = true)
+    public long version(UUID projectId, String username) {
+        access.requireOwner(projectId, username);
+        return projects.findVersion(projectId).orElseThrow(NotFoundException::new);
+    }
+
+    // without If-Match a version conflict re-applies the values to the fresh project
+    public Project update(UUID projectId, ProjectUpdateRequest req, Long expectedVersion, String username) {
+        return retry.run(expectedVersion == null, () -> updateOnce(projectId, req, expectedVersion, username));
+    }
+
+    private Project updateOnce(UUID projectId, ProjectUpdateRequest req, Long expectedVersion, String username) {
         Project p = mustOwnProject(projectId, username);
+        PreconditionFailedException.check(expectedVersion, p.getVersion());
         p.setName(req.getName());
         p.setDescription(req.getDescription());
         p.setStatus(req.getStatus());
         return projects.save(p);
     }
-    @Transactional
-    public Project patch(UUID projectId, ProjectPatchRequest req, String username) {
+    public Project patch(UUID projectId, ProjectPatchRequest req, Long expectedVersion, String username) {
+        return retry.run(expectedVersion == null, () -> patchOnce(projectId, req, expectedVersion, username));
+    }
+
+    private Project patchOnce(UUID projectId, ProjectPatchRequest req, Long expectedVersion, String username) {
         Project p = mustOwnProject(projectId, username);
+        PreconditionFailedException.check(expectedVersion, p.getVersion());
         if (req.getName() != null)        p.setName(req.getName());
         if (req.getDescription() != null) p.setDescription(req.getDescription());
         if (req.getStatus() != null)      p.setStatus(req.getStatus());
@@ -64,19 +85,32 @@ public class ProjectService {
     }
 
 
+    /**
+     * Marks the project deleted, which hides it and everything in it at once. Its tickets,
+     * comments, history and counters are removed afterwards by {@link ProjectPurger}.
+     */
     @Transactional
     public void delete(UUID projectId, String username) {
         Project p = mustOwnProject(projectId, username);
-        projects.delete(p);
+        p.setDeletedAt(OffsetDateTime.now());
+        access.invalidateProject(projectId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // a check running during the commit may have cached the grant again
+                access.invalidateProject(projectId);
+                purger.wake();
+            }
+        });
     }
 
     private User me(String username) {
         return users.findByUsername(username).orElseThrow(NotFoundException::new);
     }
 
+    // ownership is checked on ids only, the owner proxy is never initialized
     private Project mustOwnProject(UUID projectId, String username) {
-        Project p = projects.findById(projectId).orElseThrow(NotFoundException::new);
-        if (!p.getUser().getUsername().equals(username)) throw new ForbiddenException();
-        return p;
+        access.requireOwner(projectId, username);
+        return projects.findById(projectId).orElseThrow(NotFoundException::new);
     }
 }
\ No newline at end of file
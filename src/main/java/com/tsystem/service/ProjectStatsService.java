@@ -0,0 +1,264 @@
+package com.tsystem.service;
+
+import com.tsystem.exception.ConflictException;
+import com.tsystem.model.dto.response.ProjectStatsResponse;
+import com.tsystem.model.dto.response.StatsDrift;
+import com.tsystem.model.dto.response.StatsReconcileResponse;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.repository.TicketCounterRepository;
+import com.tsystem.repository.TicketCounterRepository.CounterKey;
+import com.tsystem.repository.TicketCounterRepository.CounterRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-project ticket counts by state, priority, type and assignee. TicketService (and the data
+ * generator) move the counters in the same transaction as the tickets, so reading them is one
+ * small query whatever the size of the project. {@link #reconcile()} recounts every project from
+ * the tickets table and repairs and reports what drifted (direct SQL, bugs).
+ * <p>
+ * Every write to a project adds one to its revision, and ticket writes also move the total and
+ * bucket counters they change. Each counter is {@code ticket.counters.slots} rows summed on
+ * read, and a transaction writes all its changes into the slot of its thread, so concurrent
+ * writes to one project only wait for each other when they land in the same slot. Comment
+ * writes touch nothing but one revision slot.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectStatsService.class);
+
+    // smallest uuid, keyset paging starts right after it
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final TicketCounterRepository counters;
+    private final ProjectAccess access;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private Counter driftCounter;
+
+    @Value("${ticket.counters.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${ticket.counters.max-reported-drift:100}")
+    private int maxReportedDrift;
+
+    // counter rows per project and counter; more slots, fewer writers waiting on one row
+    @Value("${ticket.counters.slots:8}")
+    private int slots;
+
+    @PostConstruct
+    void initMetrics() {
+        driftCounter = Counter.builder("ticket.counters.drift")
+                .description("Project ticket counters found wrong and repaired by reconciliation")
+                .register(meterRegistry);
+    }
+
+    // --------- READ ---------
+
+    @Transactional(readOnly = true)
+    public ProjectStatsResponse stats(UUID projectId, String username) {
+        access.requireOwner(projectId, username);
+
+        Map<TicketState, Long> byState = zeros(TicketState.class);
+        Map<TicketPriority, Long> byPriority = zeros(TicketPriority.class);
+        Map<TicketType, Long> byType = zeros(TicketType.class);
+        Map<UUID, Long> byAssignee = new HashMap<>();
+        long total = 0;
+        long unassigned = 0;
+
+        for (CounterRow row : counters.find(projectId)) {
+            if (row.tickets() == 0) {
+                continue;
+            }
+            switch (row.dimension()) {
+                case TicketCounterDelta.TOTAL -> total = row.tickets();
+                case TicketCounterDelta.STATE -> byState.put(TicketState.valueOf(row.bucket()), row.tickets());
+                case TicketCounterDelta.PRIORITY -> byPriority.put(TicketPriority.valueOf(row.bucket()), row.tickets());
+                case TicketCounterDelta.TYPE -> byType.put(TicketType.valueOf(row.bucket()), row.tickets());
+                case TicketCounterDelta.ASSIGNEE -> {
+                    if (TicketCounterDelta.UNASSIGNED.equals(row.bucket())) {
+                        unassigned = row.tickets();
+                    } else {
+                        byAssignee.put(UUID.fromString(row.bucket()), row.tickets());
+                    }
+                }
+                case TicketCounterDelta.REVISION -> {
+                    // not a count, see revision()
+                }
+                default -> log.debug("Unknown counter dimension {}", row.dimension());
+            }
+        }
+        return ProjectStatsResponse.builder()
+                .projectId(projectId)
+                .total(total)
+                .byState(byState)
+                .byPriority(byPriority)
+                .byType(byType)
+                .byAssignee(byAssignee)
+                .unassigned(unassigned)
+                .build();
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> zeros(Class<E> type) {
+        Map<E, Long> map = new EnumMap<>(type);
+        for (E e : type.getEnumConstants()) {
+            map.put(e, 0L);
+        }
+        return map;
+    }
+
+    /**
+     * Incremented by every ticket and comment write of the project, in the writing transaction;
+     * the ETag of the project's ticket and comment lists.
+     */
+    public long revision(UUID projectId) {
+        return counters.findRevision(projectId);
+    }
+
+    // --------- WRITE ---------
+
+    /** Applies the collected changes as part of the caller's transaction. */
+    public void apply(TicketCounterDelta delta) {
+        counters.add(delta.projectId(), slot(), delta.entries());
+    }
+
+    // by thread, not at random: a transaction runs on one thread, so all its applies go to one
+    // slot and lock rows in key order, and two transactions never wait for each other crosswise
+    private int slot() {
+        return (int) Math.floorMod(Thread.currentThread().getId(), (long) slots);
+    }
+
+    /** Increments the project revision for a write that changes no counts (comments). */
+    public void touch(UUID projectId) {
+        apply(new TicketCounterDelta(projectId));
+    }
+
+    // --------- RECONCILIATION ---------
+
+    @Scheduled(cron = "${ticket.counters.reconcile-cron:0 30 3 * * *}")
+    void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (ConflictException e) {
+            log.info("Counter reconciliation skipped, one is already running");
+        }
+    }
+
+    /**
+     * Recounts every project from the tickets table, one short transaction per project, and
+     * replaces the counters that differ. The project's counter rows are locked while it is
+     * recounted, so ticket writes running at the same time are neither missed nor counted twice.
+     */
+    public StatsReconcileResponse reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            throw new ConflictException("Counter reconciliation is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            long projects = 0;
+            long driftedProjects = 0;
+            long driftedCounters = 0;
+            List<StatsDrift> report = new ArrayList<>();
+
+            UUID after = FIRST_ID;
+            List<UUID> chunk;
+            do {
+                chunk = counters.findProjectIdsAfter(after, chunkSize);
+                for (UUID projectId : chunk) {
+                    List<StatsDrift> drift = tx.execute(status -> reconcile(projectId));
+                    projects++;
+                    if (!drift.isEmpty()) {
+                        driftedProjects++;
+                        driftedCounters += drift.size();
+                        drift.stream().limit(Math.max(0, maxReportedDrift - report.size())).forEach(report::add);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    after = chunk.get(chunk.size() - 1);
+                }
+            } while (chunk.size() == chunkSize);
+
+            driftCounter.increment(driftedCounters);
+            StatsReconcileResponse response = StatsReconcileResponse.builder()
+                    .projects(projects)
+                    .driftedProjects(driftedProjects)
+                    .driftedCounters(driftedCounters)
+                    .drift(report)
+                    .elapsedMs((System.nanoTime() - started) / 1_000_000)
+                    .build();
+            if (driftedCounters > 0) {
+                log.warn("Ticket counters repaired in {} of {} projects, {} counters were off: {}",
+                        driftedProjects, projects, driftedCounters, report);
+            } else {
+                log.info("Ticket counters of {} projects checked, no drift", projects);
+            }
+            return response;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private List<StatsDrift> reconcile(UUID projectId) {
+        Map<CounterKey, Long> stored = new LinkedHashMap<>();
+        counters.findForUpdate(projectId).stream()
+                .filter(r -> !TicketCounterDelta.REVISION.equals(r.dimension()))
+                .forEach(r -> stored.merge(r.key(), r.tickets(), Long::sum));
+        List<CounterRow> counted = counters.count(projectId);
+
+        List<StatsDrift> drift = new ArrayList<>();
+        Set<CounterKey> seen = new HashSet<>();
+        for (CounterRow r : counted) {
+            seen.add(r.key());
+            long s = stored.getOrDefault(r.key(), 0L);
+            if (s != r.tickets()) {
+                drift.add(drift(projectId, r.key(), s, r.tickets()));
+            }
+        }
+        stored.forEach((key, s) -> {
+            if (!seen.contains(key) && s != 0) {
+                drift.add(drift(projectId, key, s, 0));
+            }
+        });
+
+        if (!drift.isEmpty()) {
+            counters.replace(projectId, counted.stream().filter(r -> r.tickets() != 0).toList());
+        }
+        return drift;
+    }
+
+    private static StatsDrift drift(UUID projectId, CounterKey key, long stored, long counted) {
+        return StatsDrift.builder()
+                .projectId(projectId)
+                .dimension(key.dimension())
+                .bucket(key.bucket())
+                .stored(stored)
+                .counted(counted)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.tsystem.service;
+
+import com.tsystem.exception.UnauthorizedException;
+import com.tsystem.model.user.RefreshToken;
+import com.tsystem.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Rotating refresh tokens: each one is good for a single {@link #rotate}, which hands out its
+ * successor. Lifetime is {@code jwt.refresh-ttl}; expired rows are pruned by {@link #prune}.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** A rotated token: whose it is and the successor to give back to the client. */
+    public record Rotation(UUID userId, String refreshToken) {
+    }
+
+    private final RefreshTokenRepository tokens;
+    private final Duration ttl;
+    private final Counter reused;
+
+    public RefreshTokenService(RefreshTokenRepository tokens,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh-ttl:30d}") Duration ttl) {
+        this.tokens = tokens;
+        this.ttl = ttl;
+        this.reused = Counter.builder("jwt.refresh.reused")
+                .description("Used refresh tokens presented again; their families were revoked")
+                .register(meterRegistry);
+    }
+
+    /** Starts a new token family, on login and registration. */
+    @Transactional
+    public String issue(UUID userId) {
+        return create(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Consumes the token and issues its successor in the same family.
+     *
+     * @throws UnauthorizedException for an unknown, expired or already used token; a used one
+     *                               also revokes every token of its family
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshToken current = tokens.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        OffsetDateTime now = OffsetDateTime.now();
+
+        if (current.getUsedAt() != null || tokens.markUsed(current.getId(), now) == 0) {
+            tokens.deleteByFamilyId(current.getFamilyId());
+            reused.increment();
+            log.warn("Refresh token of user {} used twice, family {} revoked", current.getUserId(), current.getFamilyId());
+            throw new UnauthorizedException("Refresh token already used, sign in again");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token expired");
+        }
+        return new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+    }
+
+    /** Revokes the token's family, on logout; tokens of other users or unknown ones are ignored. */
+    @Transactional
+    public void revoke(String refreshToken, UUID userId) {
+        tokens.findByTokenHash(hash(refreshToken))
+                .filter(t -> t.getUserId().equals(userId))
+                .ifPresent(t -> tokens.deleteByFamilyId(t.getFamilyId()));
+    }
+
+    /** Revokes every refresh token of the user, on credential changes. */
+    @Transactional
+    public void revokeAll(UUID userId) {
+        tokens.deleteByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-prune-interval-ms:3600000}")
+    @Transactional
+    public void prune() {
+        int deleted = tokens.deleteExpired(OffsetDateTime.now());
+        if (deleted > 0) {
+            log.debug("Pruned {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String create(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        tokens.save(RefreshToken.builder()
+                .userId(userId)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .expiresAt(OffsetDateTime.now().plus(ttl))
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
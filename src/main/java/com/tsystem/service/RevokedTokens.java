@@ -0,0 +1,208 @@
+package com.tsystem.service;
+
+import com.tsystem.model.user.RevokedToken;
+import com.tsystem.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Access tokens revoked before their expiry, checked by the JWT filter on every request
+ * without I/O. Each node keeps a Bloom filter of the revoked {@code jti}s in front of the
+ * exact set: a token that is not revoked, the common case, costs a few bit tests; only a
+ * Bloom hit looks at the set, which tells a revoked token from a false positive.
+ * <p>
+ * Both hold the revocations whose tokens have not expired, which with short-lived access
+ * tokens is a small set. New revocations are polled every
+ * {@code security.revocations.refresh-interval-ms}, those made on this node apply at once.
+ * The filter cannot forget, so it is rebuilt every {@code security.revocations.rebuild-interval-ms},
+ * which also prunes expired rows from revoked_tokens.
+ */
+@Component
+public class RevokedTokens {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+
+    // covers clock differences between nodes and revocations committed after a poll started
+    private static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    private record Snapshot(BloomFilter bloom, Map<UUID, OffsetDateTime> revoked) {
+    }
+
+    private final RevokedTokenRepository repository;
+    private final int bloomBits;
+    private final Duration accessTokenTtl;
+
+    private final Counter rejected;
+    private final Counter falsePositives;
+
+    private volatile Snapshot snapshot;
+    private OffsetDateTime watermark = OffsetDateTime.now(ZoneOffset.UTC);
+
+    public RevokedTokens(RevokedTokenRepository repository,
+                         MeterRegistry meterRegistry,
+                         @Value("${security.revocations.bloom-bits:1048576}") int bloomBits,
+                         @Value("${jwt.expiration-ms:900000}") long accessTokenTtlMillis) {
+        this.repository = repository;
+        this.bloomBits = bloomBits;
+        this.accessTokenTtl = Duration.ofMillis(accessTokenTtlMillis);
+        this.snapshot = new Snapshot(new BloomFilter(bloomBits), new ConcurrentHashMap<>());
+
+        this.rejected = Counter.builder("security.revocations.lookups")
+                .description("Tokens that hit the Bloom filter, revoked or not")
+                .tag("result", "revoked")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("security.revocations.lookups")
+                .description("Tokens that hit the Bloom filter, revoked or not")
+                .tag("result", "false_positive")
+                .register(meterRegistry);
+        Gauge.builder("security.revocations.size", this, r -> r.snapshot.revoked().size())
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        rebuild();
+    }
+
+    public boolean isRevoked(UUID jti) {
+        Snapshot s = snapshot;
+        if (!s.bloom().mightContain(jti)) {
+            return false;
+        }
+        if (s.revoked().containsKey(jti)) {
+            rejected.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Revokes a token until {@code expiresAt}; without a known expiry it is kept for the
+     * longest an access token can live. Must not run inside a transaction: the row has to be
+     * committed before it is added locally, see {@link #rebuild()}.
+     */
+    public void revoke(UUID jti, UUID userId, Instant expiresAt) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime until = expiresAt != null
+                ? expiresAt.atOffset(ZoneOffset.UTC)
+                : now.plus(accessTokenTtl);
+        repository.save(RevokedToken.builder()
+                .jti(jti)
+                .userId(userId)
+                .revokedAt(now)
+                .expiresAt(until)
+                .build());
+        synchronized (this) {
+            add(snapshot, jti, until);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocations.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        Snapshot s = snapshot;
+        OffsetDateTime since = watermark;
+        for (RevokedToken r : repository.findByRevokedAtAfter(since.minus(OVERLAP))) {
+            add(s, r.getJti(), r.getExpiresAt());
+            if (r.getRevokedAt().isAfter(since)) {
+                since = r.getRevokedAt();
+            }
+        }
+        watermark = since;
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        s.revoked().values().removeIf(expiresAt -> expiresAt.isBefore(now));
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocations.rebuild-interval-ms:600000}",
+            initialDelayString = "${security.revocations.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int pruned = repository.deleteExpired(now);
+
+        Snapshot s = new Snapshot(new BloomFilter(bloomBits), new ConcurrentHashMap<>());
+        for (RevokedToken r : repository.findByExpiresAtAfter(now)) {
+            add(s, r.getJti(), r.getExpiresAt());
+        }
+        // revoke() adds under the same lock after its row is committed: either before this load,
+        // which then reads the row, or into the new snapshot once it is in place
+        snapshot = s;
+        log.debug("Revoked tokens reloaded: {} live, {} expired rows pruned", s.revoked().size(), pruned);
+    }
+
+    private static void add(Snapshot s, UUID jti, OffsetDateTime expiresAt) {
+        s.revoked().put(jti, expiresAt);
+        s.bloom().add(jti);
+    }
+
+    /** Fixed-size Bloom filter over token ids; adds and reads may run concurrently. */
+    static final class BloomFilter {
+
+        private static final int HASHES = 5;
+
+        private final AtomicLongArray words;
+        private final long mask;
+
+        BloomFilter(int bits) {
+            long size = 64;
+            while (size < bits) {
+                size <<= 1;
+            }
+            this.words = new AtomicLongArray((int) (size >>> 6));
+            this.mask = size - 1;
+        }
+
+        void add(UUID id) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = (h1 + i * h2) & mask;
+                int word = (int) (bit >>> 6);
+                long flag = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & flag) == 0 && !words.compareAndSet(word, current, current | flag));
+            }
+        }
+
+        boolean mightContain(UUID id) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = (h1 + i * h2) & mask;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // MurmurHash3 finalizer
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
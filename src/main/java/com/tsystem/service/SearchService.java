@@ -0,0 +1,245 @@
+package com.tsystem.service;
+
+import com.tsystem.exception.ConflictException;
+import com.tsystem.exception.UnprocessableException;
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.dto.response.SearchRebuildResponse;
+import com.tsystem.model.dto.response.TicketSearchHit;
+import com.tsystem.repository.ProjectRepository;
+import com.tsystem.repository.TicketCommentRepository;
+import com.tsystem.repository.TicketRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text ticket search on top of {@link TicketSearchIndex}: keeps the index in step with
+ * TicketService and answers searches over the caller's own projects.
+ * <p>
+ * Committed changes only queue the ticket id, which costs the same however large the ticket or
+ * the batch. The "search-indexer" thread takes the queued ids in batches and loads the tickets
+ * and their comments with one query each; a ticket changed many times before it is taken costs
+ * one reload. The queue is in memory, like the last {@code search.index.commit-interval-ms} of
+ * index writes, so a crash can lose both; a {@link #rebuild()} repairs it.
+ * <p>
+ * Data written around TicketService (the generator, direct SQL) only shows up after a
+ * {@link #rebuild()}; an empty index is rebuilt on startup.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    // smallest uuid, keyset paging starts right after it
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final TicketSearchIndex index;
+    private final ProjectRepository projects;
+    private final TicketRepository tickets;
+    private final TicketCommentRepository ticketComments;
+    private final TransactionTemplate tx;
+    private final EntityManager entityManager;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // tickets changed since the worker last took them, each id once
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile boolean running;
+    private Thread worker;
+
+    @Value("${search.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${search.max-limit:100}")
+    private int maxLimit;
+
+    @Value("${search.index.rebuild-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${search.index.rebuild-if-empty:true}")
+    private boolean rebuildIfEmpty;
+
+    @Value("${search.index.update-batch-size:200}")
+    private int updateBatchSize;
+
+    // --------- SEARCH ---------
+
+    /** Best matching tickets of the projects {@code username} owns. */
+    public List<TicketSearchHit> search(String query, Integer limit, String username) {
+        if (query == null || query.isBlank()) {
+            throw new UnprocessableException("Search query must not be empty");
+        }
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return index.search(query, projects.findIdsByOwnerUsername(username), size);
+    }
+
+    // --------- INDEXING ---------
+
+    /** Queues the changed ticket for the worker once the change is committed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketChanged(TicketChangedEvent event) {
+        if (pending.add(event.ticketId())) {
+            wakeUp.release();
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::workLoop, "search-indexer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // what was queued meanwhile, before the index is closed
+        int taken;
+        do {
+            taken = update();
+        } while (taken > 0);
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                wakeUp.acquire();
+                wakeUp.drainPermits();
+                int taken;
+                do {
+                    taken = update();
+                } while (taken == updateBatchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // the changes themselves are committed, a rebuild brings the index back in line
+                log.warn("Search index update failed", e);
+            }
+        }
+    }
+
+    /** Reindexes up to one batch of queued tickets; returns how many it took. */
+    int update() {
+        List<UUID> ids = new ArrayList<>(updateBatchSize);
+        for (Iterator<UUID> it = pending.iterator(); it.hasNext() && ids.size() < updateBatchSize; ) {
+            // taken before loading: a change committed from here on queues the ticket again
+            ids.add(it.next());
+            it.remove();
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        tx.executeWithoutResult(status -> {
+            Map<UUID, Ticket> found = tickets.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Ticket::getId, t -> t));
+            Map<UUID, List<TicketComment>> comments = found.isEmpty() ? Map.of()
+                    : ticketComments.findByTicketIdIn(found.keySet()).stream()
+                            .collect(Collectors.groupingBy(TicketComment::getTicketId));
+            for (UUID id : ids) {
+                Ticket t = found.get(id);
+                if (t == null) {
+                    index.delete(id);
+                } else {
+                    index.put(t, comments.getOrDefault(id, List.of()));
+                }
+            }
+        });
+        return ids.size();
+    }
+
+    /**
+     * Drops the index and reads every ticket and comment again, in keyset chunks.
+     * Searches keep working meanwhile but see a partial index until it finishes.
+     */
+    public SearchRebuildResponse rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ConflictException("Search index rebuild is already running");
+        }
+        try {
+            long started = System.nanoTime();
+            long[] counts = new long[2];
+            tx.executeWithoutResult(status -> {
+                index.deleteAll();
+                UUID after = FIRST_ID;
+                List<Ticket> chunk;
+                do {
+                    chunk = tickets.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    List<UUID> ids = new ArrayList<>(chunk.size());
+                    chunk.forEach(t -> ids.add(t.getId()));
+                    Map<UUID, List<TicketComment>> comments = ticketComments.findByTicketIdIn(ids).stream()
+                            .collect(Collectors.groupingBy(TicketComment::getTicketId));
+
+                    for (Ticket t : chunk) {
+                        List<TicketComment> own = comments.getOrDefault(t.getId(), List.of());
+                        index.put(t, own);
+                        counts[1] += own.size();
+                    }
+                    counts[0] += chunk.size();
+                    after = ids.get(ids.size() - 1);
+                    // drop the chunk from the persistence context before loading the next one
+                    entityManager.clear();
+                } while (chunk.size() == chunkSize);
+            });
+            index.commit();
+
+            SearchRebuildResponse response = SearchRebuildResponse.builder()
+                    .tickets(counts[0])
+                    .comments(counts[1])
+                    .elapsedMs((System.nanoTime() - started) / 1_000_000)
+                    .build();
+            log.info("Search index rebuilt: {}", response);
+            return response;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuildIfEmpty() {
+        if (!rebuildIfEmpty || !index.isEmpty()) {
+            return;
+        }
+        Thread t = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.warn("Initial search index build failed", e);
+            }
+        }, "search-index-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+}
@@ -0,0 +1,87 @@
+package com.tsystem.service;
+
+import com.tsystem.model.Ticket;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.repository.TicketCounterRepository.CounterKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Counter changes collected over one write (or one batch) to a project's tickets, applied with
+ * {@link ProjectStatsService#apply}. Changes that cancel out are never written, except the
+ * project revision, which every applied delta increments by one.
+ */
+public final class TicketCounterDelta {
+
+    static final String TOTAL = "total";
+    static final String STATE = "state";
+    static final String PRIORITY = "priority";
+    static final String TYPE = "type";
+    static final String ASSIGNEE = "assignee";
+    // not a ticket count: incremented on every ticket or comment write, the ETag of project lists
+    static final String REVISION = "revision";
+    static final String ALL = "all";
+    static final String UNASSIGNED = "none";
+
+    /** The counted fields of a ticket before it is changed. */
+    public record Snapshot(TicketState state, TicketPriority priority, TicketType type, UUID assignee) {
+    }
+
+    private final UUID projectId;
+    private final Map<CounterKey, Long> deltas = new TreeMap<>();
+
+    public TicketCounterDelta(UUID projectId) {
+        this.projectId = projectId;
+        bump(REVISION, ALL, 1);
+    }
+
+    public static Snapshot snapshot(Ticket t) {
+        return new Snapshot(t.getState(), t.getPriority(), t.getType(), t.getAssignedUserId());
+    }
+
+    public void add(Ticket t) {
+        count(snapshot(t), 1);
+    }
+
+    public void remove(Ticket t) {
+        count(snapshot(t), -1);
+    }
+
+    public void change(Snapshot before, Ticket after) {
+        count(before, -1);
+        count(snapshot(after), 1);
+    }
+
+    UUID projectId() {
+        return projectId;
+    }
+
+    /** Non-zero changes in lock order. */
+    List<Map.Entry<CounterKey, Long>> entries() {
+        List<Map.Entry<CounterKey, Long>> list = new ArrayList<>(deltas.size());
+        deltas.forEach((k, v) -> {
+            if (v != 0) {
+                list.add(Map.entry(k, v));
+            }
+        });
+        return list;
+    }
+
+    private void count(Snapshot s, long delta) {
+        bump(TOTAL, ALL, delta);
+        bump(STATE, s.state().name(), delta);
+        bump(PRIORITY, s.priority().name(), delta);
+        bump(TYPE, s.type().name(), delta);
+        bump(ASSIGNEE, s.assignee() != null ? s.assignee().toString() : UNASSIGNED, delta);
+    }
+
+    private void bump(String dimension, String bucket, long delta) {
+        deltas.merge(new CounterKey(dimension, bucket), delta, Long::sum);
+    }
+}
@@ -0,0 +1,18 @@
+package com.tsystem.service;
+
+import com.tsystem.model.TicketDocument;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Where {@link TicketIndexer} delivers search documents. Chosen with {@code search.outbox.sink}
+ * (elasticsearch, file); without a sink the outbox is not written at all.
+ * A batch is sent again after any exception, so implementations must be idempotent.
+ */
+public interface TicketDocumentSink {
+
+    void send(List<TicketDocument> upserts, Collection<UUID> deletes) throws IOException;
+}
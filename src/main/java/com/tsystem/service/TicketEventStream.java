@@ -0,0 +1,491 @@
+package com.tsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsystem.exception.ServiceUnavailableException;
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.dto.response.TicketEventResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events of ticket and comment changes, one stream per project
+ * ({@code GET /api/projects/{projectId}/events}).
+ * <p>
+ * Connections are async servlet requests: an idle subscriber holds a socket and a few objects,
+ * no thread. Committed {@link TicketChangedEvent}s are serialized once and put into each
+ * subscriber's own buffer of {@code events.sse.buffer-size} events; a small pool
+ * ({@code events.sse.dispatch-threads}) writes the buffers out. When a client reads slower than
+ * events arrive its buffer fills up and {@code events.sse.overflow} decides:
+ * {@code drop-oldest} drops the oldest events and sends a {@code reset} event in their place,
+ * {@code disconnect} closes the stream and the client reconnects with its Last-Event-ID.
+ * <p>
+ * A client that stops reading without closing the connection makes a write block until the
+ * container gives up on it. A write running longer than {@code events.sse.write-timeout} drops
+ * its subscriber, and until the blocked write returns the pool runs one thread more, so a few
+ * stalled clients do not hold up delivery to everyone else.
+ * <p>
+ * The last {@code events.sse.replay-size} events of every project are kept for
+ * {@code events.sse.replay-retention} after its last event, so a reconnecting client gets what
+ * it missed. When that is not possible (restart, id too old) it gets a {@code reset} event and
+ * should reload the ticket list. Event ids are only meaningful to the node that issued them.
+ * History entries are written with ticket_created and ticket_updated, there is no separate
+ * history event.
+ */
+@Component
+@PropertySource("classpath:events.properties")
+public class TicketEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketEventStream.class);
+
+    static final String RESET = "reset";
+
+    // ids look like <boot>-<sequence>; ids of an earlier run never match
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ProjectAccess access;
+    private final ObjectMapper objectMapper;
+
+    private final int bufferSize;
+    private final boolean disconnectOnOverflow;
+    private final int replaySize;
+    private final Duration replayRetention;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final long writeTimeoutNanos;
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+    // subscribers with a write in progress, watched by checkWrites
+    private final Set<Subscriber> writing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger blockedWrites = new AtomicInteger();
+
+    private final Counter dropped;
+    private final Counter overflowDisconnects;
+    private final Counter writeTimeoutDisconnects;
+
+    public TicketEventStream(ProjectAccess access,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${events.sse.buffer-size:64}") int bufferSize,
+                             @Value("${events.sse.overflow:drop-oldest}") String overflow,
+                             @Value("${events.sse.replay-size:256}") int replaySize,
+                             @Value("${events.sse.replay-retention:10m}") Duration replayRetention,
+                             @Value("${events.sse.timeout:30m}") Duration timeout,
+                             @Value("${events.sse.max-subscribers:20000}") int maxSubscribers,
+                             @Value("${events.sse.dispatch-threads:4}") int dispatchThreads,
+                             @Value("${events.sse.write-timeout:5s}") Duration writeTimeout) {
+        this.access = access;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.disconnectOnOverflow = "disconnect".equalsIgnoreCase(overflow);
+        this.replaySize = replaySize;
+        this.replayRetention = replayRetention;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "sse-dispatch-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("sse.subscribers", subscribers, AtomicInteger::get)
+                .description("Open project event streams")
+                .register(meterRegistry);
+        Gauge.builder("sse.channels", channels, Map::size)
+                .description("Projects with subscribers or replayable events")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("sse.events.dropped")
+                .description("Events dropped from full subscriber buffers")
+                .register(meterRegistry);
+        this.overflowDisconnects = Counter.builder("sse.disconnects")
+                .tag("reason", "overflow")
+                .description("Streams closed because the client did not keep up")
+                .register(meterRegistry);
+        this.writeTimeoutDisconnects = Counter.builder("sse.disconnects")
+                .tag("reason", "write_timeout")
+                .description("Streams closed because the client did not keep up")
+                .register(meterRegistry);
+        Gauge.builder("sse.writes.blocked", blockedWrites, AtomicInteger::get)
+                .description("Timed-out writes still holding a dispatch thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        channels.values().forEach(ch -> ch.subscribers.forEach(Subscriber::complete));
+        dispatcher.shutdown();
+    }
+
+    // --------- SUBSCRIBE ---------
+
+    /**
+     * Opens the stream of one project. With {@code lastEventId} (the Last-Event-ID header of a
+     * reconnect) the events after it are sent first, or a {@code reset} event if they are gone.
+     */
+    public SseEmitter subscribe(UUID projectId, String lastEventId, String username) {
+        access.requireOwner(projectId, username);
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open event streams, try again later");
+        }
+
+        SseEmitter emitter = newEmitter(timeout.toMillis());
+        while (true) {
+            Channel ch = channels.computeIfAbsent(projectId, Channel::new);
+            synchronized (ch) {
+                if (ch.closed) {
+                    continue;   // removed by the cleanup meanwhile, take the new one
+                }
+                Subscriber sub = new Subscriber(ch, emitter);
+                emitter.onCompletion(sub::close);
+                emitter.onError(e -> sub.close());
+                emitter.onTimeout(sub::complete);
+
+                sub.offer(Event.comment("connected"));
+                if (lastEventId != null) {
+                    ch.replay(lastEventId, sub);
+                }
+                ch.subscribers.add(sub);
+                return emitter;
+            }
+        }
+    }
+
+    // tests record what is sent
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    // --------- PUBLISH ---------
+
+    /** Only committed changes are streamed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketChanged(TicketChangedEvent event) {
+        TicketEventResponse payload = TicketEventResponse.builder()
+                .projectId(event.projectId())
+                .ticketId(event.ticketId())
+                .type(event.type())
+                .at(OffsetDateTime.now())
+                .build();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        while (true) {
+            Channel ch = channels.computeIfAbsent(event.projectId(), Channel::new);
+            synchronized (ch) {
+                if (ch.closed) {
+                    continue;
+                }
+                long seq = sequence.incrementAndGet();
+                Event e = new Event(seq, boot + "-" + seq, event.type().name(), json);
+                ch.append(e);
+                ch.subscribers.forEach(s -> s.offer(e));
+                return;
+            }
+        }
+    }
+
+    // --------- MAINTENANCE ---------
+
+    /**
+     * Keeps idle streams alive through proxies, finds dead connections (the write fails) and
+     * forgets projects nobody listened to for {@code events.sse.replay-retention}.
+     */
+    @Scheduled(fixedDelayString = "${events.sse.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        long expired = System.nanoTime() - replayRetention.toNanos();
+        for (Channel ch : channels.values()) {
+            ch.subscribers.forEach(Subscriber::heartbeat);
+            synchronized (ch) {
+                if (ch.subscribers.isEmpty() && ch.lastActivity - expired < 0) {
+                    ch.closed = true;
+                    channels.remove(ch.projectId, ch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops subscribers whose current write has run past {@code events.sse.write-timeout}. The
+     * emitter is left alone, its lock is held by the blocked write; that write fails when the
+     * container times it out, and the thread then goes back to the pool.
+     */
+    @Scheduled(fixedDelayString = "${events.sse.write-check-interval-ms:1000}")
+    public void checkWrites() {
+        long now = System.nanoTime();
+        for (Subscriber sub : writing) {
+            long started = sub.writeStarted;
+            if (started != 0 && now - started > writeTimeoutNanos && sub.giveUpWrite()) {
+                writeTimeoutDisconnects.increment();
+                log.debug("Event stream of project {} dropped, write blocked for over {} ms",
+                        sub.channel.projectId, TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                sub.close();
+            }
+        }
+    }
+
+    private void resizeDispatcher(int delta) {
+        synchronized (dispatcher) {
+            blockedWrites.addAndGet(delta);
+            int size = dispatcher.getCorePoolSize() + delta;
+            // the maximum may never be below the core size
+            if (delta > 0) {
+                dispatcher.setMaximumPoolSize(size);
+                dispatcher.setCorePoolSize(size);
+            } else {
+                dispatcher.setCorePoolSize(size);
+                dispatcher.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+
+    private record Event(long seq, String id, String name, String data) {
+
+        static Event comment(String text) {
+            return new Event(0, null, null, text);
+        }
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment(data);
+            }
+            SseEmitter.SseEventBuilder sse = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id != null ? sse.id(id) : sse;
+        }
+    }
+
+    /** Subscribers and replay buffer of one project; guarded by its own monitor. */
+    private final class Channel {
+
+        final UUID projectId;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final ArrayDeque<Event> replay = new ArrayDeque<>();
+        // ids after this one are all still in replay
+        long complete;
+        long lastActivity = System.nanoTime();
+        boolean closed;
+
+        Channel(UUID projectId) {
+            this.projectId = projectId;
+            this.complete = sequence.get();
+        }
+
+        void append(Event e) {
+            if (replay.size() == replaySize) {
+                complete = replay.removeFirst().seq();
+            }
+            replay.addLast(e);
+            lastActivity = System.nanoTime();
+        }
+
+        void replay(String lastEventId, Subscriber sub) {
+            long last = parseSeq(lastEventId);
+            if (last < complete || last > sequence.get()) {
+                // the head id, so the reconnect after the reset does not reset again
+                long head = replay.isEmpty() ? complete : replay.getLast().seq();
+                sub.offer(new Event(head, boot + "-" + head, RESET, "{}"));
+                return;
+            }
+            for (Event e : replay) {
+                if (e.seq() > last) {
+                    sub.offer(e);
+                }
+            }
+        }
+
+        private long parseSeq(String id) {
+            int dash = id.lastIndexOf('-');
+            if (dash < 0 || !id.substring(0, dash).equals(boot)) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(id.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /** One open stream: a bounded buffer, written out by at most one dispatcher thread at a time. */
+    private final class Subscriber {
+
+        final Channel channel;
+        final SseEmitter emitter;
+
+        // guarded by this
+        final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        boolean draining;
+        boolean lost;
+        boolean closed;
+        boolean completeAfterDrain;
+        // set once checkWrites gave the current write up
+        boolean stalled;
+        // nanoTime the current write started, 0 between writes
+        volatile long writeStarted;
+
+        Subscriber(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        void offer(Event e) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    if (disconnectOnOverflow) {
+                        overflowDisconnects.increment();
+                        closed = true;
+                        buffer.clear();
+                        if (draining) {
+                            // a blocked write holds the emitter, the drain completes it after
+                            completeAfterDrain = true;
+                        } else {
+                            // closed outside the lock, see complete()
+                            dispatcher.execute(this::complete);
+                        }
+                        return;
+                    }
+                    buffer.removeFirst();
+                    lost = true;
+                    dropped.increment();
+                }
+                buffer.addLast(e);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            dispatcher.execute(this::drain);
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (!buffer.isEmpty() || draining) {
+                    return;     // busy streams need no keep-alive
+                }
+            }
+            offer(Event.comment("keep-alive"));
+        }
+
+        private void drain() {
+            while (true) {
+                Event next;
+                boolean sendReset;
+                synchronized (this) {
+                    next = buffer.pollFirst();
+                    if (next == null || closed) {
+                        draining = false;
+                        if (completeAfterDrain) {
+                            completeAfterDrain = false;
+                            dispatcher.execute(this::complete);
+                        }
+                        return;
+                    }
+                    sendReset = lost;
+                    lost = false;
+                }
+                writeStarted = System.nanoTime();
+                writing.add(this);
+                try {
+                    if (sendReset) {
+                        emitter.send(new Event(0, null, RESET, "{}").toSse());
+                    }
+                    emitter.send(next.toSse());
+                } catch (IOException | IllegalStateException e) {
+                    // client gone; the container completes the request
+                    log.debug("Event stream of project {} closed: {}", channel.projectId, e.toString());
+                    close();
+                    return;
+                } finally {
+                    writing.remove(this);
+                    writeStarted = 0;
+                    writeReturned();
+                }
+            }
+        }
+
+        /** Lets the pool run one thread more until the current write returns; false if it did already. */
+        synchronized boolean giveUpWrite() {
+            if (stalled || writeStarted == 0) {
+                return false;
+            }
+            stalled = true;
+            resizeDispatcher(1);
+            return true;
+        }
+
+        // gives back the thread checkWrites added for this write
+        private void writeReturned() {
+            synchronized (this) {
+                if (!stalled) {
+                    return;
+                }
+                stalled = false;
+            }
+            resizeDispatcher(-1);
+        }
+
+        void complete() {
+            close();
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // already completed
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                buffer.clear();
+                closed = true;
+            }
+            // the emitter callbacks and a failed write may both get here
+            if (channel.subscribers.remove(this)) {
+                subscribers.decrementAndGet();
+            }
+        }
+    }
+}
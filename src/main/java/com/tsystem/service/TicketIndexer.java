@@ -0,0 +1,227 @@
+package com.tsystem.service;
+
+import com.tsystem.exception.UnprocessableException;
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.TicketDocument;
+import com.tsystem.repository.IndexOutboxRepository;
+import com.tsystem.repository.IndexOutboxRepository.PendingChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the external search index (Elasticsearch) through ticket_index_outbox, replacing the
+ * Logstash JDBC poller. Off unless {@code search.outbox.sink} names a {@link TicketDocumentSink}.
+ * <p>
+ * Every {@link TicketChangedEvent} becomes an outbox row written in the transaction that made
+ * the change, so a committed change is never missed and a rolled back one is never sent.
+ * The "ticket-indexer" thread reads the oldest rows, collapses them to one document per ticket,
+ * loads the documents with a single join and sends them to the sink in one bulk request.
+ * The rows are deleted only after the sink accepted the batch; on failure the same rows are
+ * sent again with a growing pause. Delivery is at least once, which is safe because documents
+ * are keyed by ticket id.
+ * <p>
+ * Assumes one application instance: a second one would not lose anything, only send the
+ * same batches twice.
+ */
+@Component
+public class TicketIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketIndexer.class);
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final IndexOutboxRepository outbox;
+    private final TicketDocumentSink sink;
+
+    private final int batchSize;
+    private final Duration pollInterval;
+
+    private final Timer lag;
+    private final Timer bulk;
+    private final DistributionSummary batchDocuments;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public TicketIndexer(IndexOutboxRepository outbox,
+                         ObjectProvider<TicketDocumentSink> sink,
+                         MeterRegistry meterRegistry,
+                         @Value("${search.outbox.batch-size:500}") int batchSize,
+                         @Value("${search.outbox.poll-interval:1s}") Duration pollInterval) {
+        this.outbox = outbox;
+        this.sink = sink.getIfAvailable();
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+
+        this.lag = Timer.builder("search.outbox.lag")
+                .description("Time from the change to its document reaching the sink")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.bulk = Timer.builder("search.outbox.bulk")
+                .description("Time to send one batch to the sink")
+                .register(meterRegistry);
+        this.batchDocuments = DistributionSummary.builder("search.outbox.batch.size")
+                .description("Documents per batch sent to the sink")
+                .baseUnit("documents")
+                .register(meterRegistry);
+        this.failures = Counter.builder("search.outbox.failures")
+                .description("Batches the sink did not accept, they are sent again")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (sink == null) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::workLoop, "ticket-indexer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Ticket indexer sending to {}", sink.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return sink != null;
+    }
+
+    // --------- OUTBOX ---------
+
+    /**
+     * Runs inside the publishing transaction. Changes are collected per transaction and written
+     * with one batch insert right before commit, so a ticket touched several times (batch
+     * endpoint, ticket plus comment) costs one row.
+     */
+    @EventListener
+    public void onTicketChanged(TicketChangedEvent event) {
+        if (sink == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            outbox.insert(List.of(event), OffsetDateTime.now());
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<UUID, TicketChangedEvent> pending =
+                (Map<UUID, TicketChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<UUID, TicketChangedEvent> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    outbox.insert(changes.values(), OffsetDateTime.now());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(TicketIndexer.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.putIfAbsent(event.ticketId(), event);
+    }
+
+    /** Queues every ticket, to fill an empty or reset external index. Returns the number queued. */
+    public int backfill() {
+        if (sink == null) {
+            throw new UnprocessableException("External search indexing is off (search.outbox.sink)");
+        }
+        int queued = outbox.insertAll(OffsetDateTime.now());
+        log.info("Queued {} tickets for the external search index", queued);
+        return queued;
+    }
+
+    // --------- WORKER ---------
+
+    private void workLoop() {
+        long backoff = pollInterval.toMillis();
+        while (running) {
+            try {
+                if (drain() < batchSize) {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+                backoff = pollInterval.toMillis();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                // rows stay in the outbox, the same batch is sent again after the pause
+                failures.increment();
+                log.warn("Sending search documents failed, retrying in {} ms", backoff, e);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    /** Sends one batch of outbox rows; returns the number of rows handled. */
+    private int drain() throws IOException {
+        List<PendingChange> pending = outbox.findPending(batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        // one document per ticket, lag measured from its oldest change
+        Map<UUID, OffsetDateTime> oldest = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(pending.size());
+        for (PendingChange p : pending) {
+            oldest.merge(p.ticketId(), p.createdAt(), (a, b) -> a.isBefore(b) ? a : b);
+            ids.add(p.id());
+        }
+
+        List<TicketDocument> documents = outbox.findDocuments(oldest.keySet());
+        Set<UUID> deletes = new HashSet<>(oldest.keySet());
+        documents.forEach(d -> deletes.remove(d.id()));
+
+        long start = System.nanoTime();
+        sink.send(documents, deletes);
+        bulk.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        outbox.delete(ids);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        oldest.values().forEach(at -> lag.record(Duration.between(at, now)));
+        batchDocuments.record(oldest.size());
+        return pending.size();
+    }
+}
@@ -0,0 +1,231 @@
+package com.tsystem.service;
+
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.dto.response.TicketSearchHit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process Lucene index over ticket name, description and comment bodies, one document per
+ * ticket. It lives in {@code search.index.dir} and survives restarts.
+ * <p>
+ * Writes are visible to searches within {@code search.index.max-staleness} (near-real-time reopen,
+ * no commit needed) and are committed to disk every {@code search.index.commit-interval-ms}.
+ * Only one process may open the directory. Feeding the index is up to {@link SearchService}.
+ */
+@Component
+public class TicketSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketSearchIndex.class);
+
+    static final String ID = "id";
+    static final String PROJECT = "project";
+    static final String NAME = "name";
+    static final String DESCRIPTION = "description";
+    static final String COMMENT = "comment";
+
+    // a hit in the ticket name counts three times a hit in the description or a comment
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(NAME, 3f, DESCRIPTION, 1f, COMMENT, 1f);
+    private static final Set<String> STORED = Set.of(ID, PROJECT, NAME);
+
+    private final Path path;
+    private final Duration maxStaleness;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Timer searchTimer;
+    private final MeterRegistry meterRegistry;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searchers;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopener;
+
+    public TicketSearchIndex(MeterRegistry meterRegistry,
+                             @Value("${search.index.dir:data/search-index}") String path,
+                             @Value("${search.index.max-staleness:1s}") Duration maxStaleness) {
+        this.meterRegistry = meterRegistry;
+        this.path = Path.of(path);
+        this.maxStaleness = maxStaleness;
+        this.searchTimer = Timer.builder("search.query")
+                .description("Full-text ticket search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searchers = new SearcherManager(writer, null);
+
+        reopener = new ControlledRealTimeReopenThread<>(writer, searchers,
+                maxStaleness.toMillis() / 1000.0, 0.025);
+        reopener.setName("search-index-reopen");
+        reopener.setDaemon(true);
+        reopener.start();
+
+        Gauge.builder("search.index.documents", writer, w -> w.getDocStats().numDocs)
+                .register(meterRegistry);
+        log.info("Search index at {} opened with {} documents", path.toAbsolutePath(), writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        reopener.close();
+        searchers.close();
+        writer.close();     // commits pending changes
+        directory.close();
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.commit-interval-ms:5000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isEmpty() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    // --------- WRITES ---------
+
+    /** Adds or replaces the document of one ticket. */
+    public void put(Ticket ticket, List<TicketComment> comments) {
+        try {
+            writer.updateDocument(new Term(ID, ticket.getId().toString()), document(ticket, comments));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(UUID ticketId) {
+        try {
+            writer.deleteDocuments(new Term(ID, ticketId.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteAll() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document document(Ticket ticket, List<TicketComment> comments) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, ticket.getId().toString(), Field.Store.YES));
+        doc.add(new StringField(PROJECT, ticket.getProjectId().toString(), Field.Store.YES));
+        doc.add(new TextField(NAME, ticket.getName(), Field.Store.YES));
+        if (ticket.getDescription() != null) {
+            doc.add(new TextField(DESCRIPTION, ticket.getDescription(), Field.Store.NO));
+        }
+        for (TicketComment c : comments) {
+            doc.add(new TextField(COMMENT, c.getBody(), Field.Store.NO));
+        }
+        return doc;
+    }
+
+    // --------- SEARCH ---------
+
+    /**
+     * Best matching tickets of the given projects, highest score first. The query is plain
+     * user input: words must all match, {@code "quoted phrases"}, {@code -exclusions} and
+     * {@code prefix*} work, nothing in it can fail to parse.
+     */
+    public List<TicketSearchHit> search(String text, Collection<UUID> projectIds, int limit) {
+        if (projectIds.isEmpty()) {
+            return List.of();
+        }
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query parsed = parser.parse(text);
+
+        List<BytesRef> projects = new ArrayList<>(projectIds.size());
+        projectIds.forEach(id -> projects.add(new BytesRef(id.toString())));
+        Query query = new BooleanQuery.Builder()
+                .add(parsed, BooleanClause.Occur.MUST)
+                .add(new TermInSetQuery(PROJECT, projects), BooleanClause.Occur.FILTER)
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                TopDocs top = searcher.search(query, limit);
+                StoredFields stored = searcher.storedFields();
+
+                List<TicketSearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc sd : top.scoreDocs) {
+                    Document doc = stored.document(sd.doc, STORED);
+                    hits.add(TicketSearchHit.builder()
+                            .ticketId(UUID.fromString(doc.get(ID)))
+                            .projectId(UUID.fromString(doc.get(PROJECT)))
+                            .name(doc.get(NAME))
+                            .score(sd.score)
+                            .build());
+                }
+                return hits;
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -2,25 +2,58 @@ package com.tsystem.service;
 
 import com.tsystem.exception.ForbiddenException;
 import com.tsystem.exception.NotFoundException;
-import com.tsystem.model.Project;
+import com.tsystem.exception.PreconditionFailedException;
+import com.tsystem.model.HistoryEvent;
 import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketChangedEvent;
 import com.tsystem.model.TicketComment;
 import com.tsystem.model.TicketHistory;
+import com.tsystem.exception.UnprocessableException;
+import com.tsystem.model.dto.KeysetCursor;
+import com.tsystem.model.dto.request.TicketBatchOperation;
+import com.tsystem.model.dto.request.TicketBatchRequest;
 import com.tsystem.model.dto.request.TicketCommentRequest;
 import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.dto.response.CursorPage;
+import com.tsystem.model.dto.response.TicketBatchResponse;
+import com.tsystem.model.dto.response.TicketBatchResult;
+import com.tsystem.model.dto.response.TicketHistoryResponse;
+import com.tsystem.model.dto.response.TicketView;
+import com.tsystem.model.enums.TicketBatchAction;
+import com.tsystem.model.enums.TicketChangeType;
 import com.tsystem.model.enums.TicketPriority;
 import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.mapper.TicketMapper;
 import com.tsystem.model.user.User;
-import com.tsystem.repository.ProjectRepository;
+import com.tsystem.repository.BulkInsertRepository;
+import com.tsystem.repository.ProjectPurgeRepository;
 import com.tsystem.repository.TicketCommentRepository;
+import com.tsystem.repository.TicketHistoryReadRepository;
 import com.tsystem.repository.TicketHistoryRepository;
+import com.tsystem.repository.TicketReadRepository;
 import com.tsystem.repository.TicketRepository;
 import com.tsystem.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -28,36 +61,106 @@ import java.util.UUID;
 public class TicketService {
 
     private final TicketRepository tickets;
-    private final ProjectRepository projects;
+    private final ProjectAccess access;
     private final UserRepository users;
     private final TicketCommentRepository ticketComments;
     private final TicketHistoryRepository ticketHistories;
+    private final TicketHistoryReadRepository historyReads;
+    private final TicketReadRepository ticketReads;
+    private final BulkInsertRepository bulk;
+    private final ProjectPurgeRepository ticketPurge;
+    private final HistoryJournal journal;
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher events;
+    private final ProjectStatsService stats;
+    private final OptimisticRetry retry;
+
+    @Value("${ticket.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${ticket.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${ticket.batch.max-size:500}")
+    private int maxBatchSize;
+
+    // ticket.history.writes{path=direct|bulk|journal}, rows handed to each write path
+    private Counter historyDirect;
+    private Counter historyBulk;
+    private Counter historyJournal;
+
+    @PostConstruct
+    void initMetrics() {
+        historyDirect = historyWrites("direct");
+        historyBulk = historyWrites("bulk");
+        historyJournal = historyWrites("journal");
+    }
+
+    private Counter historyWrites(String path) {
+        return Counter.builder("ticket.history.writes").tag("path", path).register(meterRegistry);
+    }
 
     // --------- TICKETS ---------
 
+    /**
+     * One page of a project's tickets, newest first. {@code cursor} is the {@code nextCursor}
+     * of the previous page; the page size is clamped to {@code ticket.page.max-size}.
+     */
     @Transactional(readOnly = true)
-    public List<Ticket> list(UUID projectId, String username) {
-        mustOwnProject(projectId, username);
-        return tickets.findByProjectIdOrderByCreatedAtDesc(projectId);
+    public CursorPage<TicketView> list(UUID projectId,
+                                       String cursor,
+                                       Integer limit,
+                                       TicketState state,
+                                       TicketPriority priority,
+                                       TicketType type,
+                                       UUID assignedUserId,
+                                       String username) {
+        access.requireOwner(projectId, username);
+
+        int size = pageSize(limit);
+        // one extra row tells whether there is a next page without a count query
+        List<TicketView> rows = ticketReads.findPage(
+                projectId, state, priority, type, assignedUserId, KeysetCursor.decode(cursor), size + 1);
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TicketView> page = rows.subList(0, size);
+        TicketView last = page.get(size - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.createdAt(), last.id()).encode());
     }
 
     @Transactional(readOnly = true)
-    public List<Ticket> listByAssigned(String username) {
-
-        return tickets.findAllByAssignedUserId(me(username).getId()).orElse(null);
+    public List<TicketView> listByAssigned(String username) {
+        return ticketReads.findAssigned(me(username).getId());
     }
 
     @Transactional(readOnly = true)
-    public Ticket findByIdAndProjectId(UUID projectId, UUID ticketId, String username) {
-        mustOwnProject(projectId, username);
-        return tickets.findByIdAndProjectId(ticketId, projectId)
+    public TicketView findByIdAndProjectId(UUID projectId, UUID ticketId, String username) {
+        access.requireOwner(projectId, username);
+        return ticketReads.findOne(ticketId, projectId)
                 .orElseThrow(NotFoundException::new);
     }
 
+    /** The ticket's version without loading it, for conditional GETs. */
+    @Transactional(readOnly = true)
+    public long version(UUID projectId, UUID ticketId, String username) {
+        access.requireOwner(projectId, username);
+        return tickets.findVersion(ticketId, projectId).orElseThrow(NotFoundException::new);
+    }
+
+    /** The project revision, the version of its ticket list. */
+    @Transactional(readOnly = true)
+    public long revision(UUID projectId, String username) {
+        access.requireOwner(projectId, username);
+        return stats.revision(projectId);
+    }
+
     @Transactional
     public Ticket create(UUID projectId, TicketRequest req, String username) {
-        Project project = mustOwnProject(projectId, username);
-        User creator = me(username);
+        // only the owner gets past the check, so the owner id is the creator id
+        UUID creatorId = access.requireOwner(projectId, username);
 
         TicketState state = req.getState() != null ? req.getState() : TicketState.open;
         TicketPriority priority = req.getPriority() != null ? req.getPriority() : TicketPriority.med;
@@ -68,33 +171,45 @@ public class TicketService {
                 .type(req.getType())
                 .priority(priority)
                 .state(state)
-                .projectId(project.getId())
-                .userId(creator.getId())
+                .projectId(projectId)
+                .userId(creatorId)
                 .assignedUserId(req.getAssignedUserId())
                 .build();
 
         Ticket saved = tickets.save(ticket);
+        TicketCounterDelta counts = new TicketCounterDelta(projectId);
+        counts.add(saved);
+        stats.apply(counts);
 
         registerHistory(saved,
                 null, saved.getState(),
                 null, saved.getPriority(),
                 null, saved.getAssignedUserId(),
-                creator);
+                creatorId);
+        changed(saved, TicketChangeType.ticket_created);
 
         return saved;
     }
 
-    @Transactional
-    public Ticket update(UUID projectId, UUID ticketId, TicketRequest req, String username) {
-        mustOwnProject(projectId, username);
-        Ticket t = tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
+    /**
+     * Read-modify-write guarded by the ticket's version. With If-Match ({@code expectedVersion})
+     * a stale version is a 412 and a concurrent write a 409; without it the change is simply
+     * applied again to the fresh ticket, so history is always diffed against what it replaces.
+     */
+    public Ticket update(UUID projectId, UUID ticketId, TicketRequest req, Long expectedVersion, String username) {
+        return retry.run(expectedVersion == null, lock -> updateOnce(projectId, ticketId, req, expectedVersion, username, lock));
+    }
 
-        User actor = me(username);
+    private Ticket updateOnce(UUID projectId, UUID ticketId, TicketRequest req, Long expectedVersion, String username,
+                          boolean lock) {
+        UUID actorId = access.requireOwner(projectId, username);
+        Ticket t = load(projectId, ticketId, lock);
+        PreconditionFailedException.check(expectedVersion, t.getVersion());
 
         TicketState oldState = t.getState();
         TicketPriority oldPriority = t.getPriority();
         UUID oldAssignee = t.getAssignedUserId();
+        TicketCounterDelta.Snapshot before = TicketCounterDelta.snapshot(t);
 
         t.setName(req.getName());
         t.setDescription(req.getDescription());
@@ -103,23 +218,29 @@ public class TicketService {
         t.setState(req.getState());
         t.setAssignedUserId(req.getAssignedUserId());
 
-        Ticket saved = tickets.save(t);
-        registerHistoryIfChanged(saved, oldState, oldPriority, oldAssignee, actor);
+        // flushed now, so a stale version fails before counters and history are written
+        Ticket saved = tickets.saveAndFlush(t);
+        changedCounts(before, saved);
+        registerHistoryIfChanged(saved, oldState, oldPriority, oldAssignee, actorId);
+        changed(saved, TicketChangeType.ticket_updated);
 
         return saved;
     }
 
-    @Transactional
-    public Ticket patch(UUID projectId, UUID ticketId, TicketRequest req, String username) {
-        mustOwnProject(projectId, username);
-        Ticket t = tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
+    public Ticket patch(UUID projectId, UUID ticketId, TicketRequest req, Long expectedVersion, String username) {
+        return retry.run(expectedVersion == null, lock -> patchOnce(projectId, ticketId, req, expectedVersion, username, lock));
+    }
 
-        User actor = me(username);
+    private Ticket patchOnce(UUID projectId, UUID ticketId, TicketRequest req, Long expectedVersion, String username,
+                          boolean lock) {
+        UUID actorId = access.requireOwner(projectId, username);
+        Ticket t = load(projectId, ticketId, lock);
+        PreconditionFailedException.check(expectedVersion, t.getVersion());
 
         TicketState oldState = t.getState();
         TicketPriority oldPriority = t.getPriority();
         UUID oldAssignee = t.getAssignedUserId();
+        TicketCounterDelta.Snapshot before = TicketCounterDelta.snapshot(t);
 
         if (req.getName() != null) {
             t.setName(req.getName());
@@ -140,48 +261,344 @@ public class TicketService {
             t.setAssignedUserId(req.getAssignedUserId());
         }
 
-        Ticket saved = tickets.save(t);
-        registerHistoryIfChanged(saved, oldState, oldPriority, oldAssignee, actor);
+        // flushed now, so a stale version fails before counters and history are written
+        Ticket saved = tickets.saveAndFlush(t);
+        changedCounts(before, saved);
+        registerHistoryIfChanged(saved, oldState, oldPriority, oldAssignee, actorId);
+        changed(saved, TicketChangeType.ticket_updated);
 
         return saved;
     }
 
     @Transactional
     public void delete(UUID projectId, UUID ticketId, String username) {
-        mustOwnProject(projectId, username);
+        access.requireOwner(projectId, username);
         Ticket t = tickets.findByIdAndProjectId(ticketId, projectId)
                 .orElseThrow(NotFoundException::new);
-        tickets.delete(t);
+        deleteWithDependents(List.of(t));
+        TicketCounterDelta counts = new TicketCounterDelta(projectId);
+        counts.remove(t);
+        stats.apply(counts);
+        changed(t, TicketChangeType.ticket_deleted);
     }
 
-    @Transactional
-    public Ticket assign(UUID projectId, UUID ticketId, UUID assignedUserId, String username) {
-        mustOwnProject(projectId, username);
-        Ticket t = tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
+    public Ticket assign(UUID projectId, UUID ticketId, UUID assignedUserId, Long expectedVersion, String username) {
+        return retry.run(expectedVersion == null, lock -> assignOnce(projectId, ticketId, assignedUserId, expectedVersion, username, lock));
+    }
 
-        User actor = me(username);
+    private Ticket assignOnce(UUID projectId, UUID ticketId, UUID assignedUserId, Long expectedVersion, String username,
+                          boolean lock) {
+        UUID actorId = access.requireOwner(projectId, username);
+        Ticket t = load(projectId, ticketId, lock);
+        PreconditionFailedException.check(expectedVersion, t.getVersion());
 
         TicketState oldState = t.getState();
         TicketPriority oldPriority = t.getPriority();
         UUID oldAssignee = t.getAssignedUserId();
+        TicketCounterDelta.Snapshot before = TicketCounterDelta.snapshot(t);
 
         t.setAssignedUserId(assignedUserId);
 
-        Ticket saved = tickets.save(t);
-        registerHistoryIfChanged(saved, oldState, oldPriority, oldAssignee, actor);
+        // flushed now, so a stale version fails before counters and history are written
+        Ticket saved = tickets.saveAndFlush(t);
+        changedCounts(before, saved);
+        registerHistoryIfChanged(saved, oldState, oldPriority, oldAssignee, actorId);
+        changed(saved, TicketChangeType.ticket_updated);
+
+        return saved;
+    }
+
+    // --------- BATCH ---------
 
+    /**
+     * Applies creates, patches, assigns and deletes in one transaction. Ownership is checked
+     * once, targets are loaded with one IN query and the resulting history rows are written
+     * with a single JDBC batch. Item-level problems (unknown ticket, invalid fields) are
+     * reported per item and do not affect the other items.
+     */
+    @Transactional
+    public TicketBatchResponse batch(UUID projectId, TicketBatchRequest req, String username) {
+        List<TicketBatchOperation> ops = req.getOperations();
+        if (ops.size() > maxBatchSize) {
+            throw new UnprocessableException("At most " + maxBatchSize + " operations per batch");
+        }
+        UUID actorId = access.requireOwner(projectId, username);
+
+        Set<UUID> targetIds = new HashSet<>();
+        Set<UUID> assigneeIds = new HashSet<>();
+        for (TicketBatchOperation op : ops) {
+            if (op.getTicketId() != null) targetIds.add(op.getTicketId());
+            if (op.getAssignedUserId() != null) assigneeIds.add(op.getAssignedUserId());
+            if (op.getTicket() != null && op.getTicket().getAssignedUserId() != null) {
+                assigneeIds.add(op.getTicket().getAssignedUserId());
+            }
+        }
+
+        Map<UUID, Ticket> targets = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            for (Ticket t : tickets.findByProjectIdAndIdIn(projectId, targetIds)) {
+                targets.put(t.getId(), t);
+                if (t.getAssignedUserId() != null) assigneeIds.add(t.getAssignedUserId());
+            }
+        }
+        // history keeps only assignees that exist, like registerHistory does
+        Set<UUID> knownUsers = assigneeIds.isEmpty() ? Set.of() : users.findExistingIds(assigneeIds);
+
+        BatchContext ctx = new BatchContext(projectId, actorId, targets, knownUsers, journal);
+        List<TicketBatchResult> results = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            results.add(applyBatchItem(i, ops.get(i), ctx));
+        }
+
+        tickets.flush();
+        if (!ctx.deleted.isEmpty()) {
+            deleteWithDependents(ctx.deleted);
+        }
+        stats.apply(ctx.counts);
+
+        // history of tickets deleted later in the same batch is dropped
+        Set<UUID> deletedIds = new HashSet<>();
+        ctx.deleted.forEach(t -> deletedIds.add(t.getId()));
+        List<TicketHistory> history = ctx.history.stream()
+                .filter(h -> !deletedIds.contains(h.getTicket().getId()))
+                .toList();
+        if (journal.isEnabled()) {
+            journal.record(history.stream().map(TicketService::toEvent).toList());
+            historyJournal.increment(history.size());
+        } else {
+            bulk.insertHistory(history);
+            historyBulk.increment(history.size());
+        }
+
+        int failed = 0;
+        // one event per ticket: created wins over later updates, deleted wins over everything
+        Map<UUID, TicketChangeType> changed = new LinkedHashMap<>();
+        for (TicketBatchResult r : results) {
+            if (r.getError() != null) failed++;
+            else if (r.getTicketId() != null) changed.merge(r.getTicketId(), changeType(r.getOp()), TicketService::dominant);
+        }
+        changed.forEach((id, type) -> events.publishEvent(new TicketChangedEvent(projectId, id, type)));
+        return TicketBatchResponse.builder()
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Deletes tickets with their comments and history, history first since it references the
+     * ticket. The dependents go by plain SQL, so pending entity changes are flushed before.
+     */
+    private void deleteWithDependents(List<Ticket> deleted) {
+        tickets.flush();
+        List<UUID> ids = deleted.stream().map(Ticket::getId).toList();
+        ticketPurge.deleteComments(ids);
+        ticketPurge.deleteHistory(ids);
+        tickets.deleteAllInBatch(deleted);
+    }
+
+    private static TicketChangeType changeType(TicketBatchAction op) {
+        return switch (op) {
+            case create -> TicketChangeType.ticket_created;
+            case delete -> TicketChangeType.ticket_deleted;
+            case patch, assign -> TicketChangeType.ticket_updated;
+        };
+    }
+
+    private static TicketChangeType dominant(TicketChangeType first, TicketChangeType next) {
+        if (next == TicketChangeType.ticket_deleted || first != TicketChangeType.ticket_created) {
+            return next;
+        }
+        return first;
+    }
+
+    private TicketBatchResult applyBatchItem(int index, TicketBatchOperation op, BatchContext ctx) {
+        TicketBatchResult result = TicketBatchResult.builder()
+                .index(index)
+                .op(op.getOp())
+                .ticketId(op.getTicketId())
+                .build();
+        try {
+            switch (op.getOp()) {
+                case create -> {
+                    Ticket t = batchCreate(op.getTicket(), ctx);
+                    result.setTicketId(t.getId());
+                    result.setStatus(HttpStatus.CREATED.value());
+                    result.setTicket(TicketMapper.toResponse(t));
+                }
+                case patch -> {
+                    Ticket t = batchPatch(target(op, ctx), op.getTicket(), ctx);
+                    result.setStatus(HttpStatus.OK.value());
+                    result.setTicket(TicketMapper.toResponse(t));
+                }
+                case assign -> {
+                    Ticket t = target(op, ctx);
+                    TicketState oldState = t.getState();
+                    TicketPriority oldPriority = t.getPriority();
+                    UUID oldAssignee = t.getAssignedUserId();
+                    TicketCounterDelta.Snapshot before = TicketCounterDelta.snapshot(t);
+                    t.setAssignedUserId(op.getAssignedUserId());
+                    ctx.historyIfChanged(t, oldState, oldPriority, oldAssignee);
+                    ctx.counts.change(before, t);
+                    result.setStatus(HttpStatus.OK.value());
+                    result.setTicket(TicketMapper.toResponse(t));
+                }
+                case delete -> {
+                    Ticket t = target(op, ctx);
+                    ctx.targets.remove(t.getId());
+                    ctx.deleted.add(t);
+                    ctx.counts.remove(t);
+                    result.setStatus(HttpStatus.NO_CONTENT.value());
+                }
+            }
+        } catch (NotFoundException e) {
+            result.setStatus(HttpStatus.NOT_FOUND.value());
+            result.setError(e.getMessage() != null ? e.getMessage() : "Ticket not found");
+        } catch (UnprocessableException e) {
+            result.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+            result.setError(e.getMessage());
+        }
+        return result;
+    }
+
+    private Ticket batchCreate(TicketRequest req, BatchContext ctx) {
+        if (req == null) throw new UnprocessableException("ticket is required");
+        if (req.getName() == null) throw new UnprocessableException("name is required");
+        if (req.getType() == null) throw new UnprocessableException("type is required");
+        checkTicketField("name", req.getName());
+        checkTicketField("description", req.getDescription());
+
+        Ticket ticket = Ticket.builder()
+                .name(req.getName())
+                .description(req.getDescription())
+                .type(req.getType())
+                .priority(req.getPriority() != null ? req.getPriority() : TicketPriority.med)
+                .state(req.getState() != null ? req.getState() : TicketState.open)
+                .projectId(ctx.projectId)
+                .userId(ctx.actorId)
+                .assignedUserId(req.getAssignedUserId())
+                .build();
+        // persist only assigns the id, the insert is flushed with the rest of the batch
+        Ticket saved = tickets.save(ticket);
+        ctx.historyIfChanged(saved, null, null, null);
+        ctx.counts.add(saved);
         return saved;
     }
 
+    private Ticket batchPatch(Ticket t, TicketRequest req, BatchContext ctx) {
+        if (req == null) throw new UnprocessableException("ticket is required");
+        // validate everything before touching the managed entity
+        if (req.getName() != null) checkTicketField("name", req.getName());
+        if (req.getDescription() != null) checkTicketField("description", req.getDescription());
+
+        TicketState oldState = t.getState();
+        TicketPriority oldPriority = t.getPriority();
+        UUID oldAssignee = t.getAssignedUserId();
+        TicketCounterDelta.Snapshot before = TicketCounterDelta.snapshot(t);
+
+        if (req.getName() != null) t.setName(req.getName());
+        if (req.getDescription() != null) t.setDescription(req.getDescription());
+        if (req.getType() != null) t.setType(req.getType());
+        if (req.getPriority() != null) t.setPriority(req.getPriority());
+        if (req.getState() != null) t.setState(req.getState());
+        if (req.getAssignedUserId() != null) t.setAssignedUserId(req.getAssignedUserId());
+
+        ctx.historyIfChanged(t, oldState, oldPriority, oldAssignee);
+        ctx.counts.change(before, t);
+        return t;
+    }
+
+    private static HistoryEvent toEvent(TicketHistory h) {
+        return HistoryEvent.of(h.getId(), h.getTicket().getId(), h.getChangedBy().getId(),
+                h.getOldState(), h.getNewState(), h.getOldPriority(), h.getNewPriority(),
+                h.getOldAssignee() != null ? h.getOldAssignee().getId() : null,
+                h.getNewAssignee() != null ? h.getNewAssignee().getId() : null,
+                h.getChangedAt());
+    }
+
+    private static Ticket target(TicketBatchOperation op, BatchContext ctx) {
+        if (op.getTicketId() == null) throw new UnprocessableException("ticketId is required");
+        Ticket t = ctx.targets.get(op.getTicketId());
+        if (t == null) throw new NotFoundException("Ticket not found");
+        return t;
+    }
+
+    // same constraints the entity declares, checked per item so one bad item does not fail the flush
+    private void checkTicketField(String property, Object value) {
+        var violations = validator.validateValue(Ticket.class, property, value);
+        if (!violations.isEmpty()) {
+            throw new UnprocessableException(property + " " + violations.iterator().next().getMessage());
+        }
+    }
+
+    /** Per-batch state: loaded targets and the rows to write at the end. */
+    private static final class BatchContext {
+        final UUID projectId;
+        final UUID actorId;
+        final Map<UUID, Ticket> targets;
+        final Set<UUID> knownUsers;
+        final List<Ticket> deleted = new ArrayList<>();
+        final HistoryJournal clock;
+        final List<TicketHistory> history = new ArrayList<>();
+        final TicketCounterDelta counts;
+
+        BatchContext(UUID projectId, UUID actorId, Map<UUID, Ticket> targets, Set<UUID> knownUsers,
+                     HistoryJournal clock) {
+            this.projectId = projectId;
+            this.counts = new TicketCounterDelta(projectId);
+            this.actorId = actorId;
+            this.targets = targets;
+            this.knownUsers = knownUsers;
+            this.clock = clock;
+        }
+
+        // rows go through BulkInsertRepository, which only reads ids, so id-only references are enough
+        void historyIfChanged(Ticket t, TicketState oldState, TicketPriority oldPriority, UUID oldAssigneeId) {
+            if (!hasChanges(t, oldState, oldPriority, oldAssigneeId)) {
+                return;
+            }
+            history.add(TicketHistory.builder()
+                    .id(UUID.randomUUID())
+                    .ticket(t)
+                    .changedBy(User.builder().id(actorId).build())
+                    .oldState(oldState)
+                    .newState(t.getState())
+                    .oldPriority(oldPriority)
+                    .newPriority(t.getPriority())
+                    .oldAssignee(userRef(oldAssigneeId))
+                    .newAssignee(userRef(t.getAssignedUserId()))
+                    .changedAt(clock.nextChangedAt())
+                    .build());
+        }
+
+        private User userRef(UUID id) {
+            return id != null && knownUsers.contains(id) ? User.builder().id(id).build() : null;
+        }
+    }
+
     // --------- HISTORY ---------
 
+    /**
+     * One page of a ticket's history, oldest first, read by a single flat query
+     * whatever the length of the history.
+     */
     @Transactional(readOnly = true)
-    public List<TicketHistory> history(UUID projectId, UUID ticketId, String username) {
-        mustOwnProject(projectId, username);
-        Ticket t = tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
-        return ticketHistories.findByTicket_IdOrderByChangedAtAsc(t.getId());
+    public CursorPage<TicketHistoryResponse> history(UUID projectId,
+                                                     UUID ticketId,
+                                                     String cursor,
+                                                     Integer limit,
+                                                     boolean usernames,
+                                                     String username) {
+        access.requireTicket(projectId, ticketId, username);
+
+        int size = pageSize(limit);
+        List<TicketHistoryResponse> rows = historyReads.findPage(ticketId, KeysetCursor.decode(cursor), size + 1, usernames);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TicketHistoryResponse> page = rows.subList(0, size);
+        TicketHistoryResponse last = page.get(size - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.getChangedAt(), last.getId()).encode());
     }
 
     private void registerHistoryIfChanged(
@@ -189,28 +606,27 @@ public class TicketService {
             TicketState oldState,
             TicketPriority oldPriority,
             UUID oldAssigneeId,
-            User changedBy
+            UUID changedById
     ) {
-        TicketState newState = ticket.getState();
-        TicketPriority newPriority = ticket.getPriority();
-        UUID newAssigneeId = ticket.getAssignedUserId();
-
-        boolean stateChanged = (oldState != null || newState != null)
-                && (oldState == null || !oldState.equals(newState));
-        boolean priorityChanged = (oldPriority != null || newPriority != null)
-                && (oldPriority == null || !oldPriority.equals(newPriority));
-        boolean assigneeChanged = (oldAssigneeId != null || newAssigneeId != null)
-                && (oldAssigneeId == null || !oldAssigneeId.equals(newAssigneeId));
-
-        if (stateChanged || priorityChanged || assigneeChanged) {
+        if (hasChanges(ticket, oldState, oldPriority, oldAssigneeId)) {
             registerHistory(ticket,
-                    oldState, newState,
-                    oldPriority, newPriority,
-                    oldAssigneeId, newAssigneeId,
-                    changedBy);
+                    oldState, ticket.getState(),
+                    oldPriority, ticket.getPriority(),
+                    oldAssigneeId, ticket.getAssignedUserId(),
+                    changedById);
         }
     }
 
+    // history is written only when state, priority or assignee changed
+    private static boolean hasChanges(Ticket ticket,
+                                      TicketState oldState,
+                                      TicketPriority oldPriority,
+                                      UUID oldAssigneeId) {
+        return !Objects.equals(oldState, ticket.getState())
+                || !Objects.equals(oldPriority, ticket.getPriority())
+                || !Objects.equals(oldAssigneeId, ticket.getAssignedUserId());
+    }
+
     private void registerHistory(
             Ticket ticket,
             TicketState oldState,
@@ -219,8 +635,17 @@ public class TicketService {
             TicketPriority newPriority,
             UUID oldAssigneeId,
             UUID newAssigneeId,
-            User changedBy
+            UUID changedById
     ) {
+        if (journal.isEnabled()) {
+            // ids only: no assignee lookups, one outbox insert, ticket_history is written later
+            journal.record(List.of(HistoryEvent.of(UUID.randomUUID(), ticket.getId(), changedById,
+                    oldState, newState, oldPriority, newPriority,
+                    oldAssigneeId, newAssigneeId, journal.nextChangedAt())));
+            historyJournal.increment();
+            return;
+        }
+
         User oldAssignee = oldAssigneeId != null
                 ? users.findById(oldAssigneeId).orElse(null)
                 : null;
@@ -230,42 +655,90 @@ public class TicketService {
 
         TicketHistory history = TicketHistory.builder()
                 .ticket(ticket)
-                .changedBy(changedBy)
+                .changedBy(users.getReferenceById(changedById))
                 .oldState(oldState)
                 .newState(newState)
                 .oldPriority(oldPriority)
                 .newPriority(newPriority)
                 .oldAssignee(oldAssignee)
                 .newAssignee(newAssignee)
+                .changedAt(journal.nextChangedAt())
                 .build();
 
         ticketHistories.save(history);
+        historyDirect.increment();
     }
 
     // --------- COMMENTS ---------
 
+    /** The project revision, which comment writes increment too; the version of a comment list. */
     @Transactional(readOnly = true)
-    public List<TicketComment> getComments(UUID projectId, UUID ticketId, String username) {
-        mustOwnProject(projectId, username);
-        tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
-        return ticketComments.findByTicketIdOrderByCreatedAtAsc(ticketId);
+    public long commentsRevision(UUID projectId, UUID ticketId, String username) {
+        access.requireTicket(projectId, ticketId, username);
+        return stats.revision(projectId);
+    }
+
+    /**
+     * One page of a ticket's comments, oldest first. {@code cursor} is the {@code nextCursor}
+     * of the previous page; the page size is clamped to {@code ticket.page.max-size}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TicketComment> getComments(UUID projectId,
+                                                 UUID ticketId,
+                                                 String cursor,
+                                                 Integer limit,
+                                                 String username) {
+        access.requireTicket(projectId, ticketId, username);
+
+        int size = pageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<TicketComment> rows = after == null
+                ? ticketComments.findByTicketIdOrderByCreatedAtAscIdAsc(ticketId, Limit.of(size + 1))
+                : ticketComments.findPageAfter(ticketId, after.at(), after.id(), Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<TicketComment> page = rows.subList(0, size);
+        TicketComment last = page.get(size - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Comment counts for a page of the project's tickets, by one grouped query; tickets of
+     * other projects are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Long> commentCounts(UUID projectId, List<TicketView> page, String username) {
+        access.requireOwner(projectId, username);
+        List<UUID> ids = page.stream()
+                .filter(t -> projectId.equals(t.projectId()))
+                .map(TicketView::id)
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Long> counts = new HashMap<>();
+        for (TicketCommentRepository.CommentCount c : ticketComments.countByTicketIds(ids)) {
+            counts.put(c.getTicketId(), c.getCount());
+        }
+        ids.forEach(id -> counts.putIfAbsent(id, 0L));
+        return counts;
     }
 
     @Transactional
     public TicketComment addComment(UUID projectId, UUID ticketId, TicketCommentRequest request, String username) {
-        mustOwnProject(projectId, username);
-        tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
-        User author = me(username);
+        UUID authorId = access.requireTicket(projectId, ticketId, username);
 
         TicketComment comment = TicketComment.builder()
                 .ticketId(ticketId)
-                .authorId(author.getId())
+                .authorId(authorId)
                 .body(request.getBody())
                 .build();
 
-        return ticketComments.save(comment);
+        TicketComment saved = ticketComments.save(comment);
+        stats.touch(projectId);
+        events.publishEvent(new TicketChangedEvent(projectId, ticketId, TicketChangeType.comment_created));
+        return saved;
     }
 
     @Transactional
@@ -273,21 +746,24 @@ public class TicketService {
                                        UUID ticketId,
                                        UUID commentId,
                                        TicketCommentRequest request,
+                                       Long expectedVersion,
                                        String username) {
-        mustOwnProject(projectId, username);
-        tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
+        UUID actorId = access.requireTicket(projectId, ticketId, username);
 
         TicketComment comment = ticketComments.findById(commentId)
                 .orElseThrow(NotFoundException::new);
 
-        User actor = me(username);
-        if (!comment.getAuthorId().equals(actor.getId())) {
+        if (!comment.getAuthorId().equals(actorId)) {
             throw new ForbiddenException();
         }
 
+        PreconditionFailedException.check(expectedVersion, comment.getVersion());
+
         comment.setBody(request.getBody());
-        return ticketComments.save(comment);
+        TicketComment saved = ticketComments.save(comment);
+        stats.touch(projectId);
+        events.publishEvent(new TicketChangedEvent(projectId, ticketId, TicketChangeType.comment_updated));
+        return saved;
     }
 
     @Transactional
@@ -295,32 +771,43 @@ public class TicketService {
                               UUID ticketId,
                               UUID commentId,
                               String username) {
-        mustOwnProject(projectId, username);
-        tickets.findByIdAndProjectId(ticketId, projectId)
-                .orElseThrow(NotFoundException::new);
+        UUID actorId = access.requireTicket(projectId, ticketId, username);
 
         TicketComment comment = ticketComments.findById(commentId)
                 .orElseThrow(NotFoundException::new);
 
-        User actor = me(username);
-        if (!comment.getAuthorId().equals(actor.getId())) {
+        if (!comment.getAuthorId().equals(actorId)) {
             throw new ForbiddenException();
         }
 
         ticketComments.delete(comment);
+        stats.touch(projectId);
+        events.publishEvent(new TicketChangedEvent(projectId, ticketId, TicketChangeType.comment_deleted));
     }
 
     // --------- HELPERS ---------
 
-    private User me(String username) {
-        return users.findByUsername(username).orElseThrow(NotFoundException::new);
+    private Ticket load(UUID projectId, UUID ticketId, boolean lock) {
+        return (lock ? tickets.findForUpdate(ticketId, projectId) : tickets.findByIdAndProjectId(ticketId, projectId))
+                .orElseThrow(NotFoundException::new);
     }
 
-    private Project mustOwnProject(UUID projectId, String username) {
-        Project p = projects.findById(projectId).orElseThrow(NotFoundException::new);
-        if (!p.getUser().getUsername().equals(username)) {
-            throw new ForbiddenException();
-        }
-        return p;
+    private void changedCounts(TicketCounterDelta.Snapshot before, Ticket after) {
+        TicketCounterDelta counts = new TicketCounterDelta(after.getProjectId());
+        counts.change(before, after);
+        stats.apply(counts);
+    }
+
+    // listeners (search index, outbox, SSE) decide themselves whether to wait for the commit
+    private void changed(Ticket t, TicketChangeType type) {
+        events.publishEvent(new TicketChangedEvent(t.getProjectId(), t.getId(), type));
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private User me(String username) {
+        return users.findByUsername(username).orElseThrow(NotFoundException::new);
     }
 }
@@ -0,0 +1,62 @@
+package com.tsystem.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags of the API. A single ticket, project or comment is tagged with its entity
+ * version; a project's lists (tickets, comments) with the project revision, which every ticket
+ * and comment write of the project increments. Both only grow, so a tag is never reused for
+ * a different representation of the same URL.
+ */
+public final class ETags {
+
+    // the version a malformed or weak If-Match stands for, never equal to a real version
+    private static final long NO_MATCH = -1;
+
+    private ETags() {
+    }
+
+    public static String version(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // "s" for a sum over counter slots; the slots count from 0, so tags of the former
+    // single revision row ("r...") must never match one of theirs
+    public static String revision(long revision) {
+        return "\"s" + revision + "\"";
+    }
+
+    /**
+     * True when the request carries an If-None-Match that {@code etag} satisfies; the response
+     * is then already a 304 and the handler returns null. The tag is only computed when there
+     * is something to compare it with.
+     */
+    public static boolean notModified(WebRequest request, Supplier<String> etag) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(etag.get());
+    }
+
+    /**
+     * The entity version an If-Match header requires, or null when the write is unconditional
+     * (no header, {@code *}). Weak tags, lists and tags not made by {@link #version} never match.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_MATCH;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
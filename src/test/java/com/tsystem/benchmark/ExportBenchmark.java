@@ -0,0 +1,260 @@
+package com.tsystem.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tsystem.model.Project;
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.TicketHistory;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.ProjectRepository;
+import com.tsystem.repository.TicketCommentRepository;
+import com.tsystem.repository.TicketHistoryRepository;
+import com.tsystem.repository.TicketRepository;
+import com.tsystem.repository.UserRepository;
+import com.tsystem.service.ExportService;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Peak heap and time-to-first-byte of the JSON export: the old "materialize everything,
+ * serialize to a String, copy to byte[]" path against the streaming {@link ExportService}.
+ * Repositories are mocked with synthetic rows so no database is needed.
+ * <p>
+ * Run one variant per JVM so the peaks do not mix:
+ * <pre>
+ * java -Xmx4g -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *      com.tsystem.benchmark.ExportBenchmark streaming 500000
+ * java -Xmx4g ... com.tsystem.benchmark.ExportBenchmark legacy 500000
+ * </pre>
+ * ({@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test})
+ */
+public class ExportBenchmark {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.now();
+
+    public static void main(String[] args) throws Exception {
+        String variant = args.length > 0 ? args[0] : "streaming";
+        int tickets = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        Dataset data = new Dataset(tickets);
+        CountingOutputStream out = new CountingOutputStream();
+
+        Export export = switch (variant) {
+            case "legacy" -> o -> legacy(data, o);
+            case "streaming" -> streamingService(data)::writeExport;
+            default -> throw new IllegalArgumentException("unknown variant " + variant);
+        };
+
+        System.gc();
+        resetPeaks();
+        long start = System.nanoTime();
+
+        export.writeTo(out);
+
+        long total = System.nanoTime() - start;
+        System.out.printf("variant=%s tickets=%d bytes=%d peakHeapMb=%.1f ttfbMs=%.1f totalMs=%.1f%n",
+                variant, tickets, out.bytes, peakHeap() / 1024.0 / 1024.0,
+                (out.firstByte - start) / 1e6, total / 1e6);
+    }
+
+    // what AdminController did before: everything in memory, then String, then byte[]
+    private static void legacy(Dataset data, OutputStream out) throws Exception {
+        Map<String, Object> export = new LinkedHashMap<>();
+        export.put("users", data.all(data.userCount, data::user));
+        export.put("projects", data.all(data.projectCount, data::project));
+        export.put("tickets", data.all(data.ticketCount, data::ticket));
+        export.put("ticketComments", data.all(data.ticketCount, data::comment));
+        export.put("ticketHistories", data.all(data.ticketCount, data::history));
+
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        String prettyJson = mapper.writeValueAsString(export);
+        byte[] jsonBytes = prettyJson.getBytes(StandardCharsets.UTF_8);
+        out.write(jsonBytes);
+    }
+
+    private static ExportService streamingService(Dataset data) {
+        UserRepository users = mock(UserRepository.class);
+        ProjectRepository projects = mock(ProjectRepository.class);
+        TicketRepository tickets = mock(TicketRepository.class);
+        TicketCommentRepository comments = mock(TicketCommentRepository.class);
+        TicketHistoryRepository history = mock(TicketHistoryRepository.class);
+
+        when(users.findByIdGreaterThanOrderByIdAsc(any(), any()))
+                .thenAnswer(inv -> data.chunk(inv.getArgument(0), inv.getArgument(1), data.userCount, data::user));
+        when(projects.findByIdGreaterThanOrderByIdAsc(any(), any()))
+                .thenAnswer(inv -> data.chunk(inv.getArgument(0), inv.getArgument(1), data.projectCount, data::project));
+        when(tickets.findByIdGreaterThanOrderByIdAsc(any(), any()))
+                .thenAnswer(inv -> data.chunk(inv.getArgument(0), inv.getArgument(1), data.ticketCount, data::ticket));
+        when(comments.findByIdGreaterThanOrderByIdAsc(any(), any()))
+                .thenAnswer(inv -> data.chunk(inv.getArgument(0), inv.getArgument(1), data.ticketCount, data::comment));
+        when(history.findByIdGreaterThanOrderByIdAsc(any(), any()))
+                .thenAnswer(inv -> data.chunk(inv.getArgument(0), inv.getArgument(1), data.ticketCount, data::history));
+
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        ExportService service = new ExportService(users, projects, tickets, comments, history,
+                mapper, mock(EntityManager.class));
+        ReflectionTestUtils.setField(service, "chunkSize", 1000);
+        return service;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeap() {
+        long sum = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) sum += pool.getPeakUsage().getUsed();
+        }
+        return sum;
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    /** Deterministic rows; ids are sequential so keyset paging works like in the database. */
+    private static final class Dataset {
+        final int ticketCount;
+        final int userCount;
+        final int projectCount;
+
+        Dataset(int ticketCount) {
+            this.ticketCount = ticketCount;
+            this.userCount = Math.max(2, ticketCount / 10);
+            this.projectCount = Math.max(1, ticketCount / 100);
+        }
+
+        static UUID id(int i) {
+            return new UUID(0L, i + 1L);
+        }
+
+        <T> List<T> all(int count, IntFunction<T> row) {
+            List<T> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) list.add(row.apply(i));
+            return list;
+        }
+
+        <T> List<T> chunk(UUID after, Limit limit, int count, IntFunction<T> row) {
+            int from = (int) after.getLeastSignificantBits();
+            int to = Math.min(count, from + limit.max());
+            List<T> list = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) list.add(row.apply(i));
+            return list;
+        }
+
+        User user(int i) {
+            return User.builder()
+                    .id(id(i))
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .name("Name" + i)
+                    .surname("Surname" + i)
+                    .password("$2a$10$abcdefghijklmnopqrstuuFh0H3n2QyV6pV3yN6m0b6WmXfQ3bXxu")
+                    .role(SystemRole.SYSTEM_USER)
+                    .createdAt(NOW)
+                    .build();
+        }
+
+        Project project(int i) {
+            return Project.builder()
+                    .id(id(i))
+                    .name("Project " + i)
+                    .description("Synthetic project number " + i)
+                    .user(user(0))
+                    .createdAt(NOW)
+                    .build();
+        }
+
+        Ticket ticket(int i) {
+            return Ticket.builder()
+                    .id(id(i))
+                    .name("Ticket " + i)
+                    .description("Lorem ipsum dolor sit amet, consectetur adipiscing elit " + i)
+                    .type(TicketType.task)
+                    .priority(TicketPriority.med)
+                    .state(TicketState.open)
+                    .projectId(id(i % projectCount))
+                    .userId(id(0))
+                    .assignedUserId(id(i % userCount))
+                    .createdAt(NOW)
+                    .build();
+        }
+
+        TicketComment comment(int i) {
+            return TicketComment.builder()
+                    .id(id(i))
+                    .ticketId(id(i))
+                    .authorId(id(0))
+                    .body("Comment body " + i)
+                    .createdAt(NOW)
+                    .build();
+        }
+
+        TicketHistory history(int i) {
+            return TicketHistory.builder()
+                    .id(id(i))
+                    .ticket(ticket(i))
+                    .changedBy(user(0))
+                    .newState(TicketState.open)
+                    .newPriority(TicketPriority.med)
+                    .newAssignee(user(i % userCount))
+                    .changedAt(NOW)
+                    .build();
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long firstByte;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            mark(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            mark(len);
+        }
+
+        private void mark(int len) {
+            if (bytes == 0 && len > 0) firstByte = System.nanoTime();
+            bytes += len;
+        }
+    }
+}
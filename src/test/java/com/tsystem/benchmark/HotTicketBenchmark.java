@@ -0,0 +1,122 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.TsystemApplication;
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.UserRepository;
+import com.tsystem.service.ProjectService;
+import com.tsystem.service.TicketService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput on one hot ticket, one writer against many: what optimistic-lock conflicts
+ * and their retries cost. Runs on an in-memory H2 with the default retry settings; the
+ * correctness side is TicketConcurrencyTest.
+ * <p>
+ * Writes to one ticket are not lock-free. Each one updates the ticket row, a retry reads it
+ * with a write lock, and each write adds to the project's counter rows (one slot per writing
+ * thread, see ProjectStatsService). On one ticket the ticket row is the limit: 8 writers reached
+ * 141 writes/s against 66 for one writer, about half the writes needed a retry and none more
+ * than one. With {@code -Dticket.counters.slots=1} it was 126 writes/s, so the counters add
+ * little here; they matter when many tickets of one project are written at once.
+ * Arguments are writers (8) and writes per writer (200):
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.tsystem.benchmark.HotTicketBenchmark 8 200}
+ */
+public class HotTicketBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int writesPerWriter = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, Object> props = new LinkedHashMap<>();
+        props.put("spring.main.web-application-type", "none");
+        props.put("spring.docker.compose.enabled", "false");
+        props.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        props.put("logging.level.root", "WARN");
+        props.put("jwt.secret-key", JwtFilterBenchmark.SECRET);
+        props.put("search.index.dir", Files.createTempDirectory("hot-ticket-index").toString());
+        props.put("spring.datasource.url",
+                "jdbc:h2:mem:hot;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000");
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(TsystemApplication.class)
+                .properties(props)
+                .run()) {
+            TicketService tickets = ctx.getBean(TicketService.class);
+            MeterRegistry meters = ctx.getBean(MeterRegistry.class);
+
+            ctx.getBean(UserRepository.class).save(User.builder()
+                    .username("hot")
+                    .email("hot@example.com")
+                    .name("hot")
+                    .surname("hot")
+                    .password("x")
+                    .role(SystemRole.SYSTEM_USER)
+                    .build());
+            UUID projectId = ctx.getBean(ProjectService.class)
+                    .create(ProjectCreateRequest.builder().name("hot").build(), "hot").getId();
+            UUID ticketId = tickets.create(projectId,
+                    TicketRequest.builder().name("hot").type(TicketType.bug).build(), "hot").getId();
+
+            write(tickets, projectId, ticketId, 1, writesPerWriter); // warm-up
+            double single = write(tickets, projectId, ticketId, 1, writesPerWriter);
+            double retriedBefore = meters.counter("optimistic.conflicts", "outcome", "retried").count();
+            double contended = write(tickets, projectId, ticketId, writers, writesPerWriter);
+            double retried = meters.counter("optimistic.conflicts", "outcome", "retried").count() - retriedBefore;
+
+            System.out.printf("one writer %.0f writes/s, %d writers %.0f writes/s (%.2fx), %.0f retries, max attempts %.0f%n",
+                    single, writers, contended, contended / single, retried,
+                    meters.summary("optimistic.attempts").max());
+        }
+    }
+
+    /** Patches the ticket from {@code writers} threads at once; returns writes per second. */
+    private static double write(TicketService tickets, UUID projectId, UUID ticketId,
+                                int writers, int writesPerWriter) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            running.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < writesPerWriter; i++) {
+                    TicketRequest patch = TicketRequest.builder()
+                            .state(TicketState.values()[random.nextInt(TicketState.values().length)])
+                            .priority(TicketPriority.values()[random.nextInt(TicketPriority.values().length)])
+                            .build();
+                    tickets.patch(projectId, ticketId, patch, null, "hot");
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : running) {
+            writer.get(5, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        pool.shutdown();
+        return writers * writesPerWriter / seconds;
+    }
+}
@@ -0,0 +1,86 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.configuration.JwtAuthenticationFilter;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.RevokedTokenRepository;
+import com.tsystem.repository.UserRepository;
+import com.tsystem.service.CredentialEpochs;
+import com.tsystem.service.JwtService;
+import com.tsystem.service.RevokedTokens;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * One authenticated request through {@link JwtAuthenticationFilter}: header parsing, token
+ * verification, the credential epoch and revocation checks and building the security context
+ * from the claims. No user is loaded; the registry holds 10k revoked tokens, so the revocation
+ * check goes through a populated Bloom filter. {@code cachesDisabled} turns off the
+ * verified-token cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NOOP = (req, res) -> { };
+
+    private JwtAuthenticationFilter warm;
+    private JwtAuthenticationFilter cold;
+    private String header;
+
+    @Setup
+    public void setup() {
+        User user = JwtServiceBenchmark.user();
+        UserRepository users = mock(UserRepository.class);
+        when(users.findCredentialEpochsChangedAfter(any())).thenReturn(List.of());
+        CredentialEpochs epochs = new CredentialEpochs(users, new SimpleMeterRegistry(), 3_600_000);
+        RevokedTokens revoked = new RevokedTokens(mock(RevokedTokenRepository.class), new SimpleMeterRegistry(),
+                1 << 20, 3_600_000);
+        for (int i = 0; i < 10_000; i++) {
+            revoked.revoke(UUID.randomUUID(), user.getId(), null);
+        }
+
+        JwtService jwt = JwtFilterBenchmark.jwtService(10_000);
+        header = "Bearer " + jwt.generateToken(user);
+
+        warm = new JwtAuthenticationFilter(jwt, epochs, revoked);
+        cold = new JwtAuthenticationFilter(JwtFilterBenchmark.jwtService(0), epochs, revoked);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object cachesWarm() throws Exception {
+        return run(warm);
+    }
+
+    @Benchmark
+    public Object cachesDisabled() throws Exception {
+        return run(cold);
+    }
+
+    private Object run(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets");
+        request.addHeader("Authorization", header);
+        filter.doFilter(request, new MockHttpServletResponse(), NOOP);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
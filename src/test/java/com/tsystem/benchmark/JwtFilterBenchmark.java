@@ -0,0 +1,104 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.model.user.VerifiedToken;
+import com.tsystem.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification cost per authenticated request, before and after the parse-once change.
+ * <ul>
+ *   <li>{@code legacy} - what JwtAuthenticationFilter did before: extractUsername, extractClaim("userId")
+ *       and three more parses inside isTokenValid, each with a fresh parser and a freshly decoded key</li>
+ *   <li>{@code verifyUncached} - {@link JwtService#verify} with the verified-token cache disabled</li>
+ *   <li>{@code verifyCached} - {@link JwtService#verify} for a token that was seen before</li>
+ * </ul>
+ * Run: {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main JwtFilterBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService cached;
+    private JwtService uncached;
+    private User user;
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        cached = jwtService(10_000);
+        uncached = jwtService(0);
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .username("bench")
+                .email("bench@example.com")
+                .name("Bench")
+                .surname("Mark")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build();
+        jwt = cached.generateToken(user);
+    }
+
+    static JwtService jwtService(int cacheSize) {
+        JwtService service = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(service, "setSecretKey", SECRET);
+        ReflectionTestUtils.invokeMethod(service, "setJwtExpirationTime", 3_600_000);
+        ReflectionTestUtils.setField(service, "verifiedCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        String username = legacyParse(jwt).getSubject();
+        String userId = legacyParse(jwt).get("userId", String.class);
+
+        // isTokenValid: username, expiration, issuedAt
+        boolean valid = username.equals(legacyParse(jwt).getSubject())
+                && !legacyParse(jwt).getExpiration().before(new Date())
+                && legacyParse(jwt).getIssuedAt() != null;
+
+        bh.consume(userId);
+        bh.consume(valid);
+    }
+
+    @Benchmark
+    public void verifyUncached(Blackhole bh) {
+        VerifiedToken token = uncached.verify(jwt);
+        bh.consume(uncached.isTokenValid(token, 0));
+    }
+
+    @Benchmark
+    public void verifyCached(Blackhole bh) {
+        VerifiedToken token = cached.verify(jwt);
+        bh.consume(cached.isTokenValid(token, 0));
+    }
+
+    private static Claims legacyParse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,66 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.model.user.VerifiedToken;
+import com.tsystem.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtService} on its own: issuing a token, and verifying one with and without the
+ * verified-token cache. The filter around it is measured by {@link JwtAuthenticationFilterBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService cached;
+    private JwtService uncached;
+    private User user;
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        cached = JwtFilterBenchmark.jwtService(10_000);
+        uncached = JwtFilterBenchmark.jwtService(0);
+        user = user();
+        jwt = cached.generateToken(user);
+    }
+
+    static User user() {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .username("bench")
+                .email("bench@example.com")
+                .name("Bench")
+                .surname("Mark")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public void validateUncached(Blackhole bh) {
+        VerifiedToken token = uncached.verify(jwt);
+        bh.consume(uncached.isTokenValid(token, 0));
+    }
+
+    @Benchmark
+    public void validateCached(Blackhole bh) {
+        VerifiedToken token = cached.verify(jwt);
+        bh.consume(cached.isTokenValid(token, 0));
+    }
+}
@@ -0,0 +1,519 @@
+package com.tsystem.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tsystem.TsystemApplication;
+import com.tsystem.model.dto.response.GenerateDataResponse;
+import com.tsystem.model.dto.response.SearchRebuildResponse;
+import com.tsystem.service.GeneratorService;
+import com.tsystem.service.SearchService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load benchmark. It boots {@link TsystemApplication} on a random port, seeds it
+ * through {@link GeneratorService}, and runs closed-loop HTTP clients against a weighted mix of
+ * the Auth, Project and Ticket endpoints. It prints and writes throughput, error counts and
+ * p50/p95/p99/p999 latency for every endpoint.
+ * <p>
+ * Without {@code jdbcUrl} it runs on an in-memory H2 database in PostgreSQL mode, so it works
+ * offline. Compare releases on the same database kind only.
+ * <pre>
+ * mvn -P load verify -Dload.args="clients=64 duration=2m"
+ * mvn -P load verify -Dload.args="jdbcUrl=jdbc:postgresql://localhost:5432/tsystem dbUser=app dbPassword=app"
+ * </pre>
+ * Options (key=value): clients, warmup, duration, users, projects, ticketsPerUser, report, metrics,
+ * jdbcUrl, dbUser, dbPassword.
+ * <p>
+ * change-password and reset-password are not part of the mix: they invalidate the tokens the
+ * other clients share, or need the emailed code.
+ * The clients are closed-loop, so under saturation the latencies understate what an
+ * open-loop arrival rate would see.
+ */
+public class LoadBenchmark {
+
+    private static final String PASSWORD = "password";
+    // lorem words the generator's texts are made of, plus what the benchmark itself writes
+    private static final String[] SEARCH_TERMS = {"dolor", "amet", "voluptas", "quia", "error", "load", "updated"};
+
+    private final Map<String, String> options;
+    private final ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private String baseUrl;
+    private String ownerToken;
+    private List<String> usernames;
+    private List<UUID> userIds;
+    private List<UUID> projects;
+    private List<TicketRef> tickets;
+    private final Queue<TicketRef> createdTickets = new ArrayBlockingQueue<>(10_000);
+    private final Queue<UUID> createdProjects = new ArrayBlockingQueue<>(10_000);
+    private final Queue<CommentRef> comments = new ArrayBlockingQueue<>(100_000);
+
+    record TicketRef(UUID projectId, UUID ticketId) {}
+
+    record CommentRef(UUID projectId, UUID ticketId, UUID commentId) {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        new LoadBenchmark(options).run();
+    }
+
+    LoadBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    void run() throws Exception {
+        int clients = intOption("clients", 32);
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "15s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+
+        try (ConfigurableApplicationContext ctx = boot()) {
+            baseUrl = "http://localhost:" + ctx.getEnvironment().getProperty("local.server.port");
+            GenerateDataResponse seeded = seed(ctx);
+            ownerToken = login(ownerUsername(ctx));
+
+            ExecutorService pool = Executors.newFixedThreadPool(clients);
+            long end = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(pool.submit(() -> clientLoop(end)));
+            }
+
+            Thread.sleep(warmup.toMillis());
+            stats.clear();
+            long started = System.nanoTime();
+            for (Future<?> f : futures) f.get();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            pool.shutdown();
+
+            report(clients, warmup, duration, seconds, seeded);
+            scrapeMetrics();
+        }
+    }
+
+    // --------- SETUP ---------
+
+    private ConfigurableApplicationContext boot() {
+        // devtools would relaunch main() in a restart class loader, without our arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        Map<String, Object> props = new LinkedHashMap<>();
+        props.put("server.port", "0");
+        props.put("spring.docker.compose.enabled", "false");
+        props.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        props.put("spring.jpa.open-in-view", "false");
+        props.put("logging.level.root", "WARN");
+        props.put("jwt.secret-key", JwtFilterBenchmark.SECRET);
+        props.put("jwt.expiration-ms", "3600000");
+        props.put("search.index.dir", tempDir("load-search-index").toString());
+        props.put("search.index.rebuild-if-empty", "false");
+
+        String jdbcUrl = options.get("jdbcUrl");
+        if (jdbcUrl != null) {
+            props.put("spring.datasource.url", jdbcUrl);
+            props.put("spring.datasource.username", options.getOrDefault("dbUser", "app"));
+            props.put("spring.datasource.password", options.getOrDefault("dbPassword", "app"));
+        } else {
+            props.put("spring.datasource.url",
+                    "jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+            props.put("spring.datasource.username", "sa");
+            props.put("spring.datasource.password", "");
+        }
+        return new SpringApplicationBuilder(TsystemApplication.class)
+                .properties(props)
+                .run();
+    }
+
+    private static Path tempDir(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GenerateDataResponse seed(ConfigurableApplicationContext ctx) {
+        GenerateDataResponse seeded = ctx.getBean(GeneratorService.class).generateData(
+                intOption("users", 50), intOption("projects", 5), intOption("ticketsPerUser", 200));
+        System.out.printf("seeded %,d rows in %,d ms%n", seeded.getTotalRows(), seeded.getElapsedMs());
+        // the generator writes around TicketService, so the search index is built from the tables
+        SearchRebuildResponse indexed = ctx.getBean(SearchService.class).rebuild();
+        System.out.printf("indexed %,d tickets in %,d ms%n", indexed.getTickets(), indexed.getElapsedMs());
+
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        usernames = jdbc.queryForList("select username from users", String.class);
+        userIds = jdbc.queryForList("select id from users", UUID.class);
+        projects = jdbc.queryForList("select id from projects", UUID.class);
+        tickets = jdbc.query("select project_id, id from tickets limit 50000",
+                (rs, i) -> new TicketRef(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)));
+        jdbc.query("""
+                        select t.project_id, c.ticket_id, c.id
+                        from ticket_comments c join tickets t on t.id = c.ticket_id
+                        limit 50000""",
+                (rs, i) -> comments.offer(new CommentRef(
+                        rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class))));
+        return seeded;
+    }
+
+    // the generator makes the first user the owner of every project
+    private String ownerUsername(ConfigurableApplicationContext ctx) {
+        return ctx.getBean(JdbcTemplate.class).queryForObject(
+                "select u.username from projects p join users u on u.id = p.owner_id limit 1", String.class);
+    }
+
+    // --------- CLIENT ---------
+
+    private void clientLoop(long endNanos) {
+        while (System.nanoTime() < endNanos) {
+            try {
+                nextOperation();
+            } catch (Exception e) {
+                stat("client error").errors.increment();
+            }
+        }
+    }
+
+    // weights roughly follow the web client: mostly reads, some writes, few auth calls
+    private void nextOperation() throws Exception {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        int roll = r.nextInt(100);
+        TicketRef ticket = tickets.get(r.nextInt(tickets.size()));
+        UUID project = projects.get(r.nextInt(projects.size()));
+
+        if (roll < 20) listTickets(project, r);
+        else if (roll < 30) call("GET /api/projects/{projectId}/tickets/{ticketId}", get(ticketPath(ticket)));
+        else if (roll < 38) patchTicket(ticket, r);
+        else if (roll < 45) createTicket(project, r);
+        else if (roll < 50) call("GET /api/projects/{projectId}/tickets/{ticketId}/comments", get(ticketPath(ticket) + "/comments"));
+        else if (roll < 56) addComment(ticket);
+        else if (roll < 61) call("GET /api/projects/{projectId}/tickets/{ticketId}/history", get(ticketPath(ticket) + "/history"));
+        else if (roll < 67) call("GET /api/projects", get("/api/projects"));
+        else if (roll < 69) call("GET /api/search", get("/api/search?q=" + SEARCH_TERMS[r.nextInt(SEARCH_TERMS.length)]));
+        else if (roll < 74) call("GET /api/projects/{projectId}", get("/api/projects/" + project));
+        else if (roll < 77) assignTicket(ticket, r);
+        else if (roll < 79) updateTicket(ticket);
+        else if (roll < 80) batchPatch(r);
+        else if (roll < 81) deleteTicket();
+        else if (roll < 82) call("GET /api/tickets", get("/api/tickets"));
+        else if (roll < 84) updateComment();
+        else if (roll < 85) deleteComment();
+        else if (roll < 87) patchProject(project);
+        else if (roll < 88) updateProject(project);
+        else if (roll < 89) createProject();
+        else if (roll < 90) deleteProject();
+        else if (roll < 95) call("POST /api/auth/login", post("/api/auth/login", null,
+                Map.of("login", usernames.get(r.nextInt(usernames.size())), "password", PASSWORD)));
+        else if (roll < 97) call("GET /api/auth/get-role", get("/api/auth/get-role"));
+        else if (roll < 99) register();
+        else call("POST /api/auth/request-password-reset", post("/api/auth/request-password-reset", null,
+                    Map.of("login", usernames.get(r.nextInt(usernames.size())))));
+    }
+
+    private void listTickets(UUID project, ThreadLocalRandom r) throws Exception {
+        HttpResponse<String> first = call("GET /api/projects/{projectId}/tickets",
+                get("/api/projects/" + project + "/tickets?limit=50"));
+        // every fourth list also follows the cursor once
+        if (first.statusCode() == 200 && r.nextInt(4) == 0) {
+            JsonNode next = json.readTree(first.body()).get("nextCursor");
+            if (next != null && !next.isNull()) {
+                call("GET /api/projects/{projectId}/tickets",
+                        get("/api/projects/" + project + "/tickets?limit=50&cursor=" + next.asText()));
+            }
+        }
+    }
+
+    private void createTicket(UUID project, ThreadLocalRandom r) throws Exception {
+        HttpResponse<String> res = call("POST /api/projects/{projectId}/tickets",
+                post("/api/projects/" + project + "/tickets", ownerToken, Map.of(
+                        "name", "load ticket " + sequence.incrementAndGet(),
+                        "description", "created by the load benchmark",
+                        "type", r.nextBoolean() ? "bug" : "task")));
+        if (res.statusCode() == 201) {
+            createdTickets.offer(new TicketRef(project, UUID.fromString(json.readTree(res.body()).get("id").asText())));
+        }
+    }
+
+    private void patchTicket(TicketRef ticket, ThreadLocalRandom r) throws Exception {
+        String[] states = {"open", "in_progress", "done"};
+        call("PATCH /api/projects/{projectId}/tickets/{ticketId}",
+                send("PATCH", ticketPath(ticket), Map.of("state", states[r.nextInt(states.length)])));
+    }
+
+    private void updateTicket(TicketRef ticket) throws Exception {
+        call("PUT /api/projects/{projectId}/tickets/{ticketId}", send("PUT", ticketPath(ticket), Map.of(
+                "name", "updated " + sequence.incrementAndGet(),
+                "description", "updated by the load benchmark",
+                "type", "task", "priority", "med", "state", "open")));
+    }
+
+    private void assignTicket(TicketRef ticket, ThreadLocalRandom r) throws Exception {
+        UUID assignee = userIds.get(r.nextInt(userIds.size()));
+        call("PUT /api/projects/{projectId}/tickets/{ticketId}/assign/{assignedUserId}",
+                send("PUT", ticketPath(ticket) + "/assign/" + assignee, Map.of()));
+    }
+
+    private void batchPatch(ThreadLocalRandom r) throws Exception {
+        UUID project = projects.get(r.nextInt(projects.size()));
+        List<Map<String, Object>> ops = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TicketRef t = tickets.get(r.nextInt(tickets.size()));
+            if (t.projectId().equals(project)) {
+                ops.add(Map.of("op", "patch", "ticketId", t.ticketId(), "ticket", Map.of("priority", "high")));
+            }
+        }
+        if (ops.isEmpty()) {
+            ops.add(Map.of("op", "create", "ticket", Map.of("name", "batch " + sequence.incrementAndGet(), "type", "task")));
+        }
+        call("POST /api/projects/{projectId}/tickets:batch",
+                post("/api/projects/" + project + "/tickets:batch", ownerToken, Map.of("operations", ops)));
+    }
+
+    private void deleteTicket() throws Exception {
+        TicketRef t = createdTickets.poll();
+        if (t != null) {
+            call("DELETE /api/projects/{projectId}/tickets/{ticketId}", send("DELETE", ticketPath(t), null));
+        }
+    }
+
+    private void addComment(TicketRef ticket) throws Exception {
+        call("POST /api/projects/{projectId}/tickets/{ticketId}/comments",
+                post(ticketPath(ticket) + "/comments", ownerToken, Map.of("body", "load comment " + sequence.incrementAndGet())));
+    }
+
+    private void updateComment() throws Exception {
+        CommentRef c = comments.poll();
+        if (c != null) {
+            call("PUT /api/projects/{projectId}/tickets/{ticketId}/comments/{commentId}",
+                    send("PUT", commentPath(c), Map.of("body", "edited " + sequence.incrementAndGet())));
+            comments.offer(c);
+        }
+    }
+
+    private void deleteComment() throws Exception {
+        CommentRef c = comments.poll();
+        if (c != null) {
+            call("DELETE /api/projects/{projectId}/tickets/{ticketId}/comments/{commentId}",
+                    send("DELETE", commentPath(c), null));
+        }
+    }
+
+    private void createProject() throws Exception {
+        HttpResponse<String> res = call("POST /api/projects", post("/api/projects", ownerToken,
+                Map.of("name", "load project " + sequence.incrementAndGet(), "description", "load benchmark")));
+        if (res.statusCode() == 201) {
+            createdProjects.offer(UUID.fromString(json.readTree(res.body()).get("id").asText()));
+        }
+    }
+
+    private void patchProject(UUID project) throws Exception {
+        call("PATCH /api/projects/{projectId}",
+                send("PATCH", "/api/projects/" + project, Map.of("description", "patched " + sequence.incrementAndGet())));
+    }
+
+    private void updateProject(UUID project) throws Exception {
+        call("PUT /api/projects/{projectId}", send("PUT", "/api/projects/" + project, Map.of(
+                "name", "project " + sequence.incrementAndGet(), "description", "updated", "status", "ACTIVE")));
+    }
+
+    private void deleteProject() throws Exception {
+        UUID p = createdProjects.poll();
+        if (p != null) {
+            call("DELETE /api/projects/{projectId}", send("DELETE", "/api/projects/" + p, null));
+        } else {
+            createProject();
+        }
+    }
+
+    private void register() throws Exception {
+        String username = "load_" + System.nanoTime() + "_" + sequence.incrementAndGet();
+        call("POST /api/auth/register", post("/api/auth/register", null, Map.of(
+                "username", username, "email", username + "@example.com",
+                "name", "Load", "surname", "Test", "password", PASSWORD)));
+    }
+
+    private String login(String username) throws Exception {
+        HttpResponse<String> res = http.send(post("/api/auth/login", null, Map.of("login", username, "password", PASSWORD)),
+                HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 200) {
+            throw new IllegalStateException("Owner login failed: " + res.statusCode() + " " + res.body());
+        }
+        return json.readTree(res.body()).get("token").asText();
+    }
+
+    // --------- HTTP ---------
+
+    private static String ticketPath(TicketRef t) {
+        return "/api/projects/" + t.projectId() + "/tickets/" + t.ticketId();
+    }
+
+    private static String commentPath(CommentRef c) {
+        return "/api/projects/" + c.projectId() + "/tickets/" + c.ticketId() + "/comments/" + c.commentId();
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path, ownerToken).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, Object body) throws Exception {
+        return send("POST", path, token, body);
+    }
+
+    private HttpRequest send(String method, String path, Object body) throws Exception {
+        return send(method, path, ownerToken, body);
+    }
+
+    private HttpRequest send(String method, String path, String token, Object body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body));
+        return builder(path, token)
+                .header("Content-Type", "application/json")
+                .method(method, publisher)
+                .build();
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b;
+    }
+
+    private HttpResponse<String> call(String endpoint, HttpRequest request) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> res = http.send(request, HttpResponse.BodyHandlers.ofString());
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        EndpointStats s = stat(endpoint);
+        s.latency.recordValue(Math.min(micros, EndpointStats.MAX_MICROS));
+        if (res.statusCode() >= 400) {
+            s.errors.increment();
+            s.statuses.computeIfAbsent(res.statusCode(), k -> new LongAdder()).increment();
+        }
+        return res;
+    }
+
+    private EndpointStats stat(String endpoint) {
+        return stats.computeIfAbsent(endpoint, k -> new EndpointStats());
+    }
+
+    // --------- REPORT ---------
+
+    private void report(int clients, Duration warmup, Duration duration, double seconds,
+                        GenerateDataResponse seeded) throws Exception {
+        ObjectNode root = json.createObjectNode();
+        root.put("timestamp", Instant.now().toString());
+        root.put("java", System.getProperty("java.version"));
+        root.put("database", options.containsKey("jdbcUrl") ? options.get("jdbcUrl") : "h2-mem (PostgreSQL mode)");
+        root.put("clients", clients);
+        root.put("warmupSeconds", warmup.toSeconds());
+        root.put("measuredSeconds", seconds);
+        root.put("seededRows", seeded.getTotalRows());
+
+        ObjectNode endpoints = root.putObject("endpoints");
+        System.out.printf("%n%-80s %9s %8s %7s %8s %8s %8s %8s%n",
+                "endpoint", "req/s", "count", "errors", "p50 ms", "p95 ms", "p99 ms", "p999 ms");
+        long total = 0;
+        for (Map.Entry<String, EndpointStats> e : new TreeMap<>(stats).entrySet()) {
+            Histogram h = e.getValue().latency;
+            long count = h.getTotalCount();
+            total += count;
+
+            ObjectNode n = endpoints.putObject(e.getKey());
+            n.put("count", count);
+            n.put("errors", e.getValue().errors.sum());
+            n.put("throughput", count / seconds);
+            n.put("p50Ms", ms(h, 50));
+            n.put("p95Ms", ms(h, 95));
+            n.put("p99Ms", ms(h, 99));
+            n.put("p999Ms", ms(h, 99.9));
+            n.put("maxMs", h.getMaxValue() / 1000.0);
+            ObjectNode statuses = n.putObject("errorStatuses");
+            e.getValue().statuses.forEach((status, c) -> statuses.put(String.valueOf(status), c.sum()));
+
+            System.out.printf("%-80s %9.1f %8d %7d %8.2f %8.2f %8.2f %8.2f%n",
+                    e.getKey(), count / seconds, count, e.getValue().errors.sum(),
+                    ms(h, 50), ms(h, 95), ms(h, 99), ms(h, 99.9));
+        }
+        root.put("totalThroughput", total / seconds);
+        System.out.printf("total %.1f req/s%n", total / seconds);
+
+        File out = new File(options.getOrDefault("report", "target/load-report.json"));
+        json.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, root);
+        System.out.println("report written to " + out.getAbsolutePath());
+    }
+
+    // server-side view of the same run: service, repository, jwt and password timers
+    private void scrapeMetrics() throws Exception {
+        HttpResponse<String> res = http.send(builder("/actuator/prometheus", null).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 200) {
+            System.out.println("metrics scrape failed: HTTP " + res.statusCode());
+            return;
+        }
+        Path out = Path.of(options.getOrDefault("metrics", "target/load-metrics.prom"));
+        Files.writeString(out, res.body());
+        System.out.println("metrics written to " + out.toAbsolutePath());
+    }
+
+    private static double ms(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private int intOption(String key, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(key, String.valueOf(defaultValue)));
+    }
+
+    private static final class EndpointStats {
+        static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+        final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+}
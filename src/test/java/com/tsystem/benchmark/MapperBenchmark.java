@@ -0,0 +1,98 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketComment;
+import com.tsystem.model.TicketHistory;
+import com.tsystem.model.dto.response.TicketCommentResponse;
+import com.tsystem.model.dto.response.TicketHistoryResponse;
+import com.tsystem.model.dto.response.TicketResponse;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.mapper.TicketCommentMapper;
+import com.tsystem.model.mapper.TicketHistoryMapper;
+import com.tsystem.model.mapper.TicketMapper;
+import com.tsystem.model.user.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-response list mapping, the last step of every list endpoint, at 10k to 1M rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Ticket> tickets;
+    private List<TicketHistory> history;
+    private List<TicketComment> comments;
+
+    @Setup
+    public void setup() {
+        OffsetDateTime now = OffsetDateTime.now();
+        User author = User.builder().id(UUID.randomUUID()).username("author").build();
+        User assignee = User.builder().id(UUID.randomUUID()).username("assignee").build();
+
+        tickets = new ArrayList<>(size);
+        history = new ArrayList<>(size);
+        comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Ticket t = Ticket.builder()
+                    .id(UUID.randomUUID())
+                    .name("Ticket " + i)
+                    .description("Lorem ipsum dolor sit amet " + i)
+                    .type(TicketType.task)
+                    .priority(TicketPriority.med)
+                    .state(TicketState.open)
+                    .projectId(author.getId())
+                    .userId(author.getId())
+                    .assignedUserId(assignee.getId())
+                    .createdAt(now)
+                    .build();
+            tickets.add(t);
+            history.add(TicketHistory.builder()
+                    .id(UUID.randomUUID())
+                    .ticket(t)
+                    .changedBy(author)
+                    .newState(TicketState.open)
+                    .newPriority(TicketPriority.med)
+                    .newAssignee(assignee)
+                    .changedAt(now)
+                    .build());
+            comments.add(TicketComment.builder()
+                    .id(UUID.randomUUID())
+                    .ticketId(t.getId())
+                    .authorId(author.getId())
+                    .body("Comment " + i)
+                    .createdAt(now)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<TicketResponse> tickets() {
+        return tickets.stream().map(TicketMapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public List<TicketHistoryResponse> history() {
+        return TicketHistoryMapper.toResponseList(history);
+    }
+
+    @Benchmark
+    public List<TicketCommentResponse> comments() {
+        return TicketCommentMapper.toResponseList(comments);
+    }
+}
@@ -0,0 +1,26 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.model.user.SystemRole;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** {@link SystemRole#getAuthorities()}, called whenever a principal is built. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SystemRoleBenchmark {
+
+    @Param({"SYSTEM_USER", "SYSTEM_ADMIN"})
+    public SystemRole role;
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> authorities() {
+        return role.getAuthorities();
+    }
+}
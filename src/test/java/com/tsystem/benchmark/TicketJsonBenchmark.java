@@ -0,0 +1,66 @@
+package com.tsystem.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tsystem.model.dto.response.TicketResponse;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a {@link TicketResponse} list, configured like the application's
+ * ObjectMapper (java.time module, ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketJsonBenchmark {
+
+    @Param({"50", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<TicketResponse> tickets;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID project = UUID.randomUUID();
+        UUID user = UUID.randomUUID();
+        tickets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tickets.add(TicketResponse.builder()
+                    .id(UUID.randomUUID())
+                    .name("Ticket " + i)
+                    .description("Lorem ipsum dolor sit amet, consectetur adipiscing elit " + i)
+                    .type(TicketType.bug)
+                    .priority(TicketPriority.high)
+                    .state(TicketState.in_progress)
+                    .createdAt(now)
+                    .projectId(project)
+                    .userId(user)
+                    .assignedUserId(user)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(tickets);
+    }
+}
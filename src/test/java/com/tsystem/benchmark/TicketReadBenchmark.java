@@ -0,0 +1,115 @@
+package com.tsystem.benchmark;
+
+import com.tsystem.TsystemApplication;
+import com.tsystem.model.Ticket;
+import com.tsystem.model.dto.response.TicketResponse;
+import com.tsystem.model.dto.response.TicketView;
+import com.tsystem.model.mapper.TicketMapper;
+import com.tsystem.repository.TicketReadRepository;
+import com.tsystem.service.GeneratorService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of the ticket list, from the query to the objects Jackson serializes, on H2.
+ * <ul>
+ *   <li>{@code entity} - what TicketService.list did before: Ticket entities in a read-only
+ *       transaction, copied by {@link TicketMapper#toResponse}</li>
+ *   <li>{@code entityTracked} - the same in a read-write transaction, where Hibernate also keeps
+ *       a snapshot of every loaded entity for dirty checking</li>
+ *   <li>{@code projection} - {@link TicketReadRepository#findPage}, rows straight into {@link TicketView}</li>
+ * </ul>
+ * Bytes allocated per listed ticket are {@code gc.alloc.rate.norm / size}:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main TicketReadBenchmark -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketReadBenchmark {
+
+    @Param({"50", "200"})
+    public int size;
+
+    private ConfigurableApplicationContext ctx;
+    private EntityManager em;
+    private TicketReadRepository reads;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private UUID projectId;
+
+    @Setup
+    public void setup() throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        Map<String, Object> props = new LinkedHashMap<>();
+        props.put("server.port", "0");
+        props.put("spring.docker.compose.enabled", "false");
+        props.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        props.put("spring.jpa.open-in-view", "false");
+        props.put("logging.level.root", "WARN");
+        props.put("jwt.secret-key", JwtFilterBenchmark.SECRET);
+        props.put("search.index.dir", Files.createTempDirectory("ticket-read-index").toString());
+        props.put("search.index.rebuild-if-empty", "false");
+        props.put("spring.datasource.url",
+                "jdbc:h2:mem:ticket-read;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        ctx = new SpringApplicationBuilder(TsystemApplication.class).properties(props).run();
+
+        ctx.getBean(GeneratorService.class).generateData(10, 1, 100);
+        projectId = ctx.getBean(JdbcTemplate.class).queryForObject("select id from projects limit 1", UUID.class);
+
+        em = ctx.getBean(EntityManager.class);
+        reads = ctx.getBean(TicketReadRepository.class);
+        PlatformTransactionManager txManager = ctx.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(txManager);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<TicketResponse> entity() {
+        return readOnly.execute(status -> entityPage());
+    }
+
+    @Benchmark
+    public List<TicketResponse> entityTracked() {
+        return readWrite.execute(status -> entityPage());
+    }
+
+    @Benchmark
+    public List<TicketView> projection() {
+        return readOnly.execute(status -> reads.findPage(projectId, null, null, null, null, null, size));
+    }
+
+    private List<TicketResponse> entityPage() {
+        return em.createQuery("""
+                        select t from Ticket t
+                        where t.projectId = :projectId
+                        order by t.createdAt desc, t.id desc""", Ticket.class)
+                .setParameter("projectId", projectId)
+                .setMaxResults(size)
+                .getResultList()
+                .stream()
+                .map(TicketMapper::toResponse)
+                .toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.tsystem.configuration;
+
+import com.tsystem.exception.UnauthorizedException;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.model.user.VerifiedToken;
+import com.tsystem.service.EventStreamTokens;
+import com.tsystem.service.JwtService;
+import com.tsystem.service.RevokedTokens;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Which bearer tokens authenticate a request. Stream tokens carry an audience and are only
+ * accepted by the event stream they were issued for; revoked tokens are refused.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:jwt-filter;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/jwt-filter-search-index"
+})
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EventStreamTokens streamTokens;
+
+    @Autowired
+    private RevokedTokens revokedTokens;
+
+    private final User user = User.builder()
+            .id(UUID.randomUUID())
+            .username("filter")
+            .email("filter@example.com")
+            .password("x")
+            .role(SystemRole.SYSTEM_USER)
+            .build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessTokenAuthenticates() throws Exception {
+        Authentication auth = filter(jwtService.generateToken(user));
+
+        assertThat(auth).isNotNull();
+        assertThat(auth.getName()).isEqualTo("filter");
+    }
+
+    @Test
+    void revokedTokenIsRejected() throws Exception {
+        String token = jwtService.generateToken(user);
+        String other = jwtService.generateToken(user);
+        VerifiedToken verified = jwtService.verify(token);
+
+        revokedTokens.revoke(verified.jti(), verified.userId(), verified.expiresAt());
+
+        assertThat(filter(token)).isNull();
+        SecurityContextHolder.clearContext();
+        assertThat(filter(other)).isNotNull();
+        // still refused after the snapshot is rebuilt from the table
+        revokedTokens.rebuild();
+        SecurityContextHolder.clearContext();
+        assertThat(filter(token)).isNull();
+    }
+
+    @Test
+    void streamTokenIsNotAnAccessToken() throws Exception {
+        String token = jwtService.generateScopedToken(user, "events:" + UUID.randomUUID(), Duration.ofMinutes(1));
+
+        assertThat(filter(token)).isNull();
+    }
+
+    @Test
+    void streamTokenOpensOnlyItsOwnProject() {
+        UUID projectId = UUID.randomUUID();
+        String token = jwtService.generateScopedToken(user, "events:" + projectId, Duration.ofMinutes(1));
+
+        assertThat(streamTokens.authenticate(token, projectId)).isEqualTo("filter");
+        assertThatThrownBy(() -> streamTokens.authenticate(token, UUID.randomUUID()))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThatThrownBy(() -> streamTokens.authenticate(jwtService.generateToken(user), projectId))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
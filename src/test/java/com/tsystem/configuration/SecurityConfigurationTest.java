@@ -0,0 +1,124 @@
+package com.tsystem.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The frontend runs on another origin, so the conditional-request headers must pass CORS:
+ * If-Match / If-None-Match in preflight, ETag readable from JS.
+ * Of the actuator endpoints only health is public; the scraper gets in with its static token.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:security;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.docker.compose.enabled=false",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/security-search-index",
+        "management.scrape.token=" + SecurityConfigurationTest.SCRAPE_TOKEN
+})
+@AutoConfigureMockMvc
+class SecurityConfigurationTest {
+
+    static final String SCRAPE_TOKEN = "scrape-secret";
+    private static final String ORIGIN = "http://localhost:5173";
+    private static final String TICKET = "/api/projects/00000000-0000-0000-0000-000000000001/tickets/00000000-0000-0000-0000-000000000002";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MetricsScrapeFilter scrapeFilter;
+
+    @Test
+    void preflightAllowsIfMatch() throws Exception {
+        mvc.perform(options(TICKET)
+                        .header(HttpHeaders.ORIGIN, ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PUT")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization,content-type,if-match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-match")));
+    }
+
+    @Test
+    void preflightAllowsIfNoneMatch() throws Exception {
+        mvc.perform(options(TICKET)
+                        .header(HttpHeaders.ORIGIN, ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization,if-none-match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-none-match")));
+    }
+
+    @Test
+    void etagIsExposed() throws Exception {
+        mvc.perform(get("/actuator/health").header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("ETag")));
+    }
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void prometheusNeedsAuthentication() throws Exception {
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "user:read")
+    void prometheusNeedsMetricsPermission() throws Exception {
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(authorities = "metrics:read")
+    void metricsAreReadWithMetricsPermission() throws Exception {
+        // the Prometheus registry is not exported in tests, the metrics endpoint sits behind the same rule
+        mvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsAreReadWithScrapeToken() throws Exception {
+        mvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, "Bearer " + SCRAPE_TOKEN))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void wrongScrapeTokenIsRejected() throws Exception {
+        mvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, "Bearer " + SCRAPE_TOKEN + "x"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void scrapeTokenOpensOnlyActuator() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + SCRAPE_TOKEN);
+        try {
+            scrapeFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.tsystem.controller;
+
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketCommentRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.UserRepository;
+import com.tsystem.service.ProjectService;
+import com.tsystem.service.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag handling end to end: reads answer 304 to a matching If-None-Match, writes answer 412 to
+ * an If-Match that is stale, weak or not one of our entity tags, and {@code *} is unconditional.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.docker.compose.enabled=false",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/conditional-search-index"
+})
+@AutoConfigureMockMvc
+class ConditionalRequestTest {
+
+    private static final String FULL_TICKET =
+            "{\"name\":\"second\",\"type\":\"bug\",\"priority\":\"med\",\"state\":\"open\"}";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private UserRepository users;
+
+    private String username;
+    private String project;
+    private String ticket;
+
+    @BeforeEach
+    void setUp() {
+        username = "etag-" + UUID.randomUUID().toString().substring(0, 8);
+        users.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("etag")
+                .surname("etag")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build());
+        UUID projectId = projectService.create(ProjectCreateRequest.builder().name(username).build(), username).getId();
+        UUID ticketId = ticketService.create(projectId,
+                TicketRequest.builder().name("t").type(TicketType.bug).build(), username).getId();
+        ticketService.addComment(projectId, ticketId, TicketCommentRequest.builder().body("c").build(), username);
+        project = "/api/projects/" + projectId;
+        ticket = project + "/tickets/" + ticketId;
+    }
+
+    // --------- If-None-Match ---------
+
+    @Test
+    void ticketReadIsNotModifiedUntilTheTicketChanges() throws Exception {
+        String etag = etag(get(ticket));
+
+        mvc.perform(as(get(ticket).header(HttpHeaders.IF_NONE_MATCH, etag)))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(as(patch(ticket).contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"renamed\"}")))
+                .andExpect(status().isOk());
+        mvc.perform(as(get(ticket).header(HttpHeaders.IF_NONE_MATCH, etag)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void projectReadIsNotModified() throws Exception {
+        String etag = etag(get(project));
+
+        mvc.perform(as(get(project).header(HttpHeaders.IF_NONE_MATCH, etag)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void listsAreNotModifiedUntilACommentIsWritten() throws Exception {
+        String tickets = etag(get(project + "/tickets"));
+        String comments = etag(get(ticket + "/comments"));
+        assertThat(tickets).isEqualTo(comments).startsWith("\"s");
+
+        mvc.perform(as(get(project + "/tickets").header(HttpHeaders.IF_NONE_MATCH, tickets)))
+                .andExpect(status().isNotModified());
+        mvc.perform(as(get(ticket + "/comments").header(HttpHeaders.IF_NONE_MATCH, comments)))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(as(post(ticket + "/comments")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"body\":\"another\"}")))
+                .andExpect(status().isCreated());
+        mvc.perform(as(get(project + "/tickets").header(HttpHeaders.IF_NONE_MATCH, tickets)))
+                .andExpect(status().isOk());
+        mvc.perform(as(get(ticket + "/comments").header(HttpHeaders.IF_NONE_MATCH, comments)))
+                .andExpect(status().isOk());
+    }
+
+    // --------- If-Match ---------
+
+    @Test
+    void ticketWritesWithAStaleTagFail() throws Exception {
+        String stale = etag(get(ticket));
+        String current = write(patch(ticket), "{\"name\":\"first\"}", stale).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(current).isNotEqualTo(stale);
+
+        write(patch(ticket), "{\"name\":\"second\"}", stale).andExpect(status().isPreconditionFailed());
+        write(put(ticket), FULL_TICKET, stale).andExpect(status().isPreconditionFailed());
+        write(put(ticket), FULL_TICKET, current)
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void projectWritesWithAStaleTagFail() throws Exception {
+        String stale = etag(get(project));
+        String current = write(patch(project), "{\"description\":\"first\"}", stale).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        write(patch(project), "{\"description\":\"second\"}", stale).andExpect(status().isPreconditionFailed());
+        write(put(project), "{\"name\":\"p\",\"status\":\"ACTIVE\"}", stale).andExpect(status().isPreconditionFailed());
+        write(put(project), "{\"name\":\"p\",\"status\":\"ACTIVE\"}", current).andExpect(status().isOk());
+    }
+
+    @Test
+    void anyTagMatches() throws Exception {
+        write(patch(ticket), "{\"name\":\"star\"}", "*").andExpect(status().isOk());
+        write(patch(project), "{\"description\":\"star\"}", "*").andExpect(status().isOk());
+    }
+
+    @Test
+    void weakTagNeverMatches() throws Exception {
+        String current = etag(get(ticket));
+
+        write(patch(ticket), "{\"name\":\"weak\"}", "W/" + current).andExpect(status().isPreconditionFailed());
+        write(patch(project), "{\"description\":\"weak\"}", "W/" + etag(get(project)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void malformedTagNeverMatches() throws Exception {
+        String current = etag(get(ticket));
+        String version = current.substring(1, current.length() - 1);
+
+        write(patch(ticket), "{\"name\":\"bad\"}", version).andExpect(status().isPreconditionFailed());
+        write(patch(ticket), "{\"name\":\"bad\"}", "\"\"").andExpect(status().isPreconditionFailed());
+        write(patch(ticket), "{\"name\":\"bad\"}", "\"abc\"").andExpect(status().isPreconditionFailed());
+        // a list tag is no entity version
+        write(patch(ticket), "{\"name\":\"bad\"}", etag(get(project + "/tickets")))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    // --------- helpers ---------
+
+    private MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request) {
+        return request.with(user(username));
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mvc.perform(as(request))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+
+    private ResultActions write(MockHttpServletRequestBuilder request, String body, String ifMatch) throws Exception {
+        return mvc.perform(as(request.contentType(MediaType.APPLICATION_JSON).content(body)
+                .header(HttpHeaders.IF_MATCH, ifMatch)));
+    }
+}
@@ -0,0 +1,166 @@
+package com.tsystem.repository;
+
+import com.tsystem.model.Project;
+import com.tsystem.model.Ticket;
+import com.tsystem.model.TicketHistory;
+import com.tsystem.model.dto.KeysetCursor;
+import com.tsystem.model.dto.response.TicketHistoryResponse;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The history read path must cost one statement per page, however long the history is
+ * and whether or not usernames are joined in.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(TicketHistoryReadRepository.class)
+class TicketHistoryReadRepositoryTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private TicketHistoryReadRepository reads;
+
+    private Statistics statistics;
+    private User owner;
+    private User alice;
+    private User bob;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        owner = em.persist(user("owner"));
+        alice = em.persist(user("alice"));
+        bob = em.persist(user("bob"));
+        Project project = em.persist(Project.builder().name("P").user(owner).build());
+        ticket = em.persist(Ticket.builder()
+                .name("T")
+                .type(TicketType.task)
+                .priority(TicketPriority.med)
+                .projectId(project.getId())
+                .userId(owner.getId())
+                .build());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50, 500})
+    void pageIsOneStatementRegardlessOfHistoryLength(int changes) {
+        writeHistory(changes);
+
+        statistics.clear();
+        List<TicketHistoryResponse> ids = reads.findPage(ticket.getId(), null, 1000, false);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(ids).hasSize(changes);
+
+        statistics.clear();
+        List<TicketHistoryResponse> named = reads.findPage(ticket.getId(), null, 1000, true);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(named).hasSize(changes);
+    }
+
+    @Test
+    void projectsIdsAndUsernamesFromForeignKeys() {
+        writeHistory(2);
+
+        List<TicketHistoryResponse> rows = reads.findPage(ticket.getId(), null, 10, true);
+
+        TicketHistoryResponse created = rows.get(0);
+        assertThat(created.getTicketId()).isEqualTo(ticket.getId());
+        assertThat(created.getChangedById()).isEqualTo(owner.getId());
+        assertThat(created.getChangedByUsername()).isEqualTo("owner");
+        assertThat(created.getOldAssigneeId()).isNull();
+        assertThat(created.getOldAssigneeUsername()).isNull();
+        assertThat(created.getNewAssigneeId()).isEqualTo(alice.getId());
+        assertThat(created.getNewAssigneeUsername()).isEqualTo("alice");
+
+        TicketHistoryResponse reassigned = rows.get(1);
+        assertThat(reassigned.getOldAssigneeUsername()).isEqualTo("alice");
+        assertThat(reassigned.getNewAssigneeUsername()).isEqualTo("bob");
+        assertThat(reassigned.getNewState()).isEqualTo(TicketState.in_progress);
+    }
+
+    @Test
+    void keysetPagesFollowChangedAtThenId() {
+        writeHistory(7);
+
+        List<TicketHistoryResponse> all = new ArrayList<>();
+        KeysetCursor cursor = null;
+        List<TicketHistoryResponse> page;
+        do {
+            page = reads.findPage(ticket.getId(), cursor, 3, false);
+            all.addAll(page);
+            if (!page.isEmpty()) {
+                TicketHistoryResponse last = page.get(page.size() - 1);
+                cursor = new KeysetCursor(last.getChangedAt(), last.getId());
+            }
+        } while (page.size() == 3);
+
+        assertThat(all).hasSize(7);
+        assertThat(all).extracting(TicketHistoryResponse::getChangedAt).isSorted();
+        assertThat(all).extracting(TicketHistoryResponse::getId).doesNotHaveDuplicates();
+    }
+
+    private void writeHistory(int changes) {
+        User assignee = null;
+        for (int i = 0; i < changes; i++) {
+            User next = i % 2 == 0 ? alice : bob;
+            em.persist(TicketHistory.builder()
+                    .ticket(ticket)
+                    .changedBy(owner)
+                    .oldState(i == 0 ? null : TicketState.open)
+                    .newState(i == 0 ? TicketState.open : TicketState.in_progress)
+                    .newPriority(TicketPriority.med)
+                    .oldAssignee(assignee)
+                    .newAssignee(next)
+                    .changedAt(START.plusSeconds(i))
+                    .build());
+            assignee = next;
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name(username)
+                .surname(username)
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build();
+    }
+}
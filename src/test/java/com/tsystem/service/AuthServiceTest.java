@@ -0,0 +1,169 @@
+package com.tsystem.service;
+
+import com.tsystem.configuration.JwtAuthenticationFilter;
+import com.tsystem.exception.UnauthorizedException;
+import com.tsystem.model.dto.ChangePassword;
+import com.tsystem.model.dto.ResetPassword;
+import com.tsystem.model.dto.request.LoginRequest;
+import com.tsystem.model.dto.request.RefreshRequest;
+import com.tsystem.model.dto.request.RegisterRequest;
+import com.tsystem.model.dto.response.TokenResponse;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Refresh token rotation and reuse detection, and what a password change or reset does to the
+ * tokens issued before it: refresh tokens are gone, access tokens of the old epoch are refused.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:auth;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/auth-search-index"
+})
+class AuthServiceTest {
+
+    private static final String PASSWORD = "secret-1";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+
+    @MockitoSpyBean
+    private RefreshTokenService refreshTokens;
+
+    private String username;
+    private TokenResponse tokens;
+
+    @BeforeEach
+    void setUp() {
+        username = "auth-" + UUID.randomUUID().toString().substring(0, 8);
+        tokens = authService.register(RegisterRequest.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("auth")
+                .surname("auth")
+                .password(PASSWORD)
+                .build());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void refreshRotatesTheToken() {
+        TokenResponse next = refresh(tokens.getRefreshToken());
+
+        assertThat(next.getRefreshToken()).isNotEqualTo(tokens.getRefreshToken());
+        assertThat(authenticates(next.getToken())).isTrue();
+        assertThat(refresh(next.getRefreshToken()).getRefreshToken()).isNotNull();
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesItsFamily() {
+        TokenResponse next = refresh(tokens.getRefreshToken());
+
+        assertThatThrownBy(() -> refresh(tokens.getRefreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+        // the successor the thief or the owner holds is gone as well
+        assertThatThrownBy(() -> refresh(next.getRefreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    @Test
+    void reuseDoesNotTouchOtherSessions() {
+        TokenResponse other = authService.authenticate(new LoginRequest(username, PASSWORD));
+        refresh(tokens.getRefreshToken());
+
+        assertThatThrownBy(() -> refresh(tokens.getRefreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThat(refresh(other.getRefreshToken()).getRefreshToken()).isNotNull();
+    }
+
+    @Test
+    void changePasswordRejectsOlderTokens() {
+        assertThat(authenticates(tokens.getToken())).isTrue();
+
+        authService.changePassword(new ChangePassword(PASSWORD, "secret-2"), username);
+
+        assertThat(authenticates(tokens.getToken())).isFalse();
+        assertThatThrownBy(() -> refresh(tokens.getRefreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+        TokenResponse fresh = authService.authenticate(new LoginRequest(username, "secret-2"));
+        assertThat(authenticates(fresh.getToken())).isTrue();
+    }
+
+    @Test
+    void resetPasswordRejectsOlderTokens() {
+        UUID tokenId = UUID.randomUUID();
+        User user = users.findByUsername(username).orElseThrow();
+        user.setResetTokenId(tokenId);
+        user.setResetCode(passwordEncoder.encode("12345678"));
+        user.setResetCodeExp(OffsetDateTime.now().plusMinutes(10));
+        users.save(user);
+
+        authService.resetPassword(new ResetPassword(tokenId + ".12345678", "secret-3"));
+
+        assertThat(authenticates(tokens.getToken())).isFalse();
+        assertThatThrownBy(() -> refresh(tokens.getRefreshToken()))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThat(authenticates(authService.authenticate(new LoginRequest(username, "secret-3")).getToken())).isTrue();
+    }
+
+    @Test
+    void failedRevocationKeepsTheOldPassword() {
+        doThrow(new IllegalStateException("database gone")).when(refreshTokens).revokeAll(any());
+
+        assertThatThrownBy(() -> authService.changePassword(new ChangePassword(PASSWORD, "secret-2"), username))
+                .isInstanceOf(IllegalStateException.class);
+
+        User user = users.findByUsername(username).orElseThrow();
+        assertThat(passwordEncoder.matches(PASSWORD, user.getPassword())).isTrue();
+        assertThat(user.getCredentialEpoch()).isZero();
+        assertThat(authenticates(tokens.getToken())).isTrue();
+    }
+
+    private TokenResponse refresh(String refreshToken) {
+        return authService.refresh(new RefreshRequest(refreshToken));
+    }
+
+    private boolean authenticates(String accessToken) {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return SecurityContextHolder.getContext().getAuthentication() != null;
+    }
+}
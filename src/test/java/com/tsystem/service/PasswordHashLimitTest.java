@@ -0,0 +1,169 @@
+package com.tsystem.service;
+
+import com.tsystem.configuration.BoundedPasswordEncoder;
+import com.tsystem.exception.TooManyRequestsException;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.convention.TestBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A full hashing queue turns a login away with 429 and {@code Retry-After} instead of queueing it,
+ * and logins go through again once the queue drains. The encoder has one thread and room for one
+ * waiting hash; its BCrypt waits at a gate so the test decides when the pool is busy.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:passwordlimit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.docker.compose.enabled=false",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/passwordlimit-search-index"
+})
+@AutoConfigureMockMvc
+class PasswordHashLimitTest {
+
+    private static final String PASSWORD = "secret-1";
+    private static final MeterRegistry METRICS = new SimpleMeterRegistry();
+    private static volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @TestBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private String username;
+
+    static PasswordEncoder passwordEncoder() {
+        return new BoundedPasswordEncoder(new GatedEncoder(new BCryptPasswordEncoder(4)), 1, 1,
+                Duration.ofSeconds(30), METRICS);
+    }
+
+    @BeforeEach
+    void setUp() {
+        username = "hash-" + UUID.randomUUID().toString().substring(0, 8);
+        users.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("hash")
+                .surname("hash")
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(SystemRole.SYSTEM_USER)
+                .build());
+    }
+
+    @AfterEach
+    void openGate() {
+        gate.countDown();
+    }
+
+    @Test
+    void fullQueueAnswers429WithRetryAfter() throws Exception {
+        login().andExpect(status().isOk());
+
+        List<CompletableFuture<String>> busy = fillPool();
+        double rejected = rejected("queue_full");
+
+        login().andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        assertThat(rejected("queue_full") - rejected).isEqualTo(1);
+
+        gate.countDown();
+        CompletableFuture.allOf(busy.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        login().andExpect(status().isOk());
+    }
+
+    @Test
+    void fullQueueRejectsWithoutWaiting() throws Exception {
+        List<CompletableFuture<String>> busy = fillPool();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> passwordEncoder.matches(PASSWORD, "$2a$04$unused"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+
+        gate.countDown();
+        assertThat(busy.get(0).get(10, TimeUnit.SECONDS)).startsWith("$2a$04$");
+    }
+
+    /** Closes the gate and occupies the hashing thread and the one queue slot. */
+    private List<CompletableFuture<String>> fillPool() {
+        gate = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("a"));
+        await().atMost(Duration.ofSeconds(10)).until(() -> GatedEncoder.waiting == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("b"));
+        await().atMost(Duration.ofSeconds(10)).until(() -> METRICS.get("password.hash.queued").gauge().value() == 1);
+        return List.of(running, queued);
+    }
+
+    private ResultActions login() throws Exception {
+        return mvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"login\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"));
+    }
+
+    private static double rejected(String reason) {
+        return METRICS.get("password.hash.rejected").tag("reason", reason).counter().count();
+    }
+
+    /** Waits at {@link #gate} before every hash. */
+    private record GatedEncoder(PasswordEncoder delegate) implements PasswordEncoder {
+
+        // only the one hashing thread writes it
+        static volatile int waiting;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            pass();
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            pass();
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        private static void pass() {
+            waiting++;
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                waiting--;
+            }
+        }
+    }
+}
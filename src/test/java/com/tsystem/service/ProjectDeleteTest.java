@@ -0,0 +1,184 @@
+package com.tsystem.service;
+
+import com.tsystem.exception.NotFoundException;
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketCommentRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.ProjectPurgeRepository;
+import com.tsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Deleting a project hides it at once; the purger then removes comments, history, outbox rows
+ * and tickets a chunk at a time, and the project row and its counters last.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projectdelete;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.docker.compose.enabled=false",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/projectdelete-search-index",
+        "project.purge.chunk-size=" + ProjectDeleteTest.CHUNK,
+        "project.purge.pause=300ms"
+})
+@AutoConfigureMockMvc
+class ProjectDeleteTest {
+
+    static final int CHUNK = 2;
+    private static final int TICKETS = 5;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoSpyBean
+    private ProjectPurgeRepository purge;
+
+    private String username;
+    private UUID projectId;
+    private final List<UUID> tickets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        username = "purge-" + UUID.randomUUID().toString().substring(0, 8);
+        users.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("purge")
+                .surname("purge")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build());
+        projectId = projectService.create(ProjectCreateRequest.builder().name(username).build(), username).getId();
+        tickets.clear();
+        for (int i = 0; i < TICKETS; i++) {
+            tickets.add(ticketWithHistoryCommentAndOutbox());
+        }
+    }
+
+    @Test
+    void deletedProjectIsNotFoundAtOnce() throws Exception {
+        UUID ticketId = tickets.get(0);
+
+        projectService.delete(projectId, username);
+
+        String project = "/api/projects/" + projectId;
+        mvc.perform(get(project).with(user(username))).andExpect(status().isNotFound());
+        mvc.perform(get(project + "/tickets").with(user(username))).andExpect(status().isNotFound());
+        mvc.perform(get(project + "/tickets/" + ticketId).with(user(username))).andExpect(status().isNotFound());
+        assertThatThrownBy(() -> projectService.findById(projectId, username)).isInstanceOf(NotFoundException.class);
+        // hidden before the purge got through its chunks
+        assertThat(count("tickets", "project_id", projectId)).isPositive();
+
+        awaitPurged();
+    }
+
+    @Test
+    void purgeRemovesRowsInChunksThenTheProject() {
+        double purgedBefore = purgedTickets();
+
+        projectService.delete(projectId, username);
+        awaitPurged();
+
+        for (UUID id : tickets) {
+            assertThat(count("tickets", "id", id)).isZero();
+            assertThat(count("ticket_comments", "ticket_id", id)).isZero();
+            assertThat(count("ticket_history", "ticket_id", id)).isZero();
+            assertThat(count("ticket_history_outbox", "ticket_id", id)).isZero();
+        }
+        assertThat(count("project_ticket_counter_slots", "project_id", projectId)).isZero();
+        assertThat(purgedTickets() - purgedBefore).isEqualTo(TICKETS);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UUID>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(purge, atLeastOnce()).deleteTickets(chunks.capture());
+        List<List<UUID>> ours = chunks.getAllValues().stream()
+                .filter(chunk -> tickets.containsAll(chunk))
+                .toList();
+        assertThat(ours).hasSize((TICKETS + CHUNK - 1) / CHUNK)
+                .allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(CHUNK));
+        assertThat(ours.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(tickets);
+
+        // the rows referencing a ticket go before it, the project only once no ticket is left
+        InOrder order = inOrder(purge);
+        order.verify(purge).deleteComments(anyList());
+        order.verify(purge).deleteHistory(anyList());
+        order.verify(purge).deleteTickets(anyList());
+        order.verify(purge).deleteProject(eq(projectId));
+    }
+
+    /** A ticket with two history rows, one comment and one event left in the outbox. */
+    private UUID ticketWithHistoryCommentAndOutbox() {
+        UUID id = ticketService.create(projectId,
+                TicketRequest.builder().name("t").type(TicketType.bug).build(), username).getId();
+        ticketService.patch(projectId, id, TicketRequest.builder().state(TicketState.in_progress).build(), null, username);
+        ticketService.addComment(projectId, id, TicketCommentRequest.builder().body("c").build(), username);
+        UUID userId = users.findByUsername(username).orElseThrow().getId();
+        jdbc.update("""
+                        insert into ticket_history_outbox (id, ticket_id, changed_by_id, old_state, new_state,
+                                                           old_priority, new_priority, changed_at)
+                        values (?, ?, ?, 0, 1, 0, 0, ?)""",
+                UUID.randomUUID(), id, userId, OffsetDateTime.now());
+        assertThat(count("ticket_history", "ticket_id", id)).isEqualTo(2);
+        return id;
+    }
+
+    private void awaitPurged() {
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> count("projects", "id", projectId) == 0);
+    }
+
+    private double purgedTickets() {
+        return meterRegistry.get("project.purge.rows").tag("table", "tickets").counter().count();
+    }
+
+    private long count(String table, String column, UUID id) {
+        Long n = jdbc.queryForObject("select count(*) from " + table + " where " + column + " = ?", Long.class, id);
+        return n != null ? n : 0;
+    }
+}
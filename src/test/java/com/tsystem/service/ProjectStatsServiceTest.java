@@ -0,0 +1,199 @@
+package com.tsystem.service;
+
+import com.tsystem.model.Ticket;
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketBatchOperation;
+import com.tsystem.model.dto.request.TicketBatchRequest;
+import com.tsystem.model.dto.request.TicketCommentRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.dto.response.ProjectStatsResponse;
+import com.tsystem.model.dto.response.StatsDrift;
+import com.tsystem.model.dto.response.StatsReconcileResponse;
+import com.tsystem.model.enums.TicketBatchAction;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.TicketRepository;
+import com.tsystem.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The counters follow every kind of ticket write, spread over several slots, and reconciliation
+ * finds and repairs what was changed behind their back.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stats;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/stats-search-index"
+})
+class ProjectStatsServiceTest {
+
+    @Autowired
+    private ProjectStatsService stats;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private TicketRepository tickets;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private String username;
+    private UUID userId;
+    private UUID projectId;
+
+    @BeforeEach
+    void setUp() {
+        username = "stats-" + UUID.randomUUID().toString().substring(0, 8);
+        userId = users.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("stats")
+                .surname("stats")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build()).getId();
+        projectId = projectService.create(ProjectCreateRequest.builder().name(username).build(), username).getId();
+    }
+
+    @Test
+    void countersFollowEveryWrite() throws Exception {
+        long writes = 0;
+
+        // from several threads, so the counts end up in several slots
+        List<UUID> ids = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<UUID>> created = new ArrayList<>();
+            for (int i = 0; i < 24; i++) {
+                TicketRequest req = TicketRequest.builder()
+                        .name("t" + i)
+                        .type(TicketType.values()[i % 3])
+                        .priority(TicketPriority.values()[i % 3])
+                        .assignedUserId(i % 2 == 0 ? userId : null)
+                        .build();
+                created.add(pool.submit(() -> ticketService.create(projectId, req, username).getId()));
+            }
+            for (Future<UUID> f : created) {
+                ids.add(f.get());
+                writes++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        ticketService.patch(projectId, ids.get(0), TicketRequest.builder().state(TicketState.in_progress).build(), null, username);
+        ticketService.patch(projectId, ids.get(1), TicketRequest.builder()
+                .state(TicketState.done).priority(TicketPriority.high).type(TicketType.feature).build(), null, username);
+        ticketService.assign(projectId, ids.get(2), null, null, username);
+        ticketService.assign(projectId, ids.get(3), userId, null, username);
+        ticketService.delete(projectId, ids.get(4), username);
+        ticketService.batch(projectId, new TicketBatchRequest(List.of(
+                TicketBatchOperation.builder().op(TicketBatchAction.delete).ticketId(ids.get(5)).build(),
+                TicketBatchOperation.builder().op(TicketBatchAction.create)
+                        .ticket(TicketRequest.builder().name("b").type(TicketType.bug).build()).build()
+        )), username);
+        ticketService.addComment(projectId, ids.get(6), TicketCommentRequest.builder().body("c").build(), username);
+        writes += 7;
+
+        assertThat(stats.stats(projectId, username)).isEqualTo(recount());
+        assertThat(stats.revision(projectId)).isEqualTo(writes);
+        Integer slots = jdbc.queryForObject(
+                "select count(distinct slot) from project_ticket_counter_slots where project_id = ? and dimension = 'total'",
+                Integer.class, projectId);
+        assertThat(slots).isGreaterThan(1);
+        assertThat(reconcileDrift()).isEmpty();
+    }
+
+    @Test
+    void reconcileReportsAndRepairsDrift() {
+        for (int i = 0; i < 3; i++) {
+            ticketService.create(projectId, TicketRequest.builder().name("t" + i).type(TicketType.bug).build(), username);
+        }
+        long revision = stats.revision(projectId);
+        // a write that bypassed the service
+        jdbc.update("""
+                update project_ticket_counter_slots set tickets = tickets + 5
+                where project_id = ? and dimension = 'state' and bucket = 'open'""", projectId);
+        jdbc.update("update tickets set priority = 'high' where project_id = ?", projectId);
+
+        List<StatsDrift> drift = reconcileDrift();
+
+        assertThat(drift).extracting(StatsDrift::getDimension, StatsDrift::getBucket, StatsDrift::getStored, StatsDrift::getCounted)
+                .containsExactlyInAnyOrder(
+                        org.assertj.core.groups.Tuple.tuple("state", "open", 8L, 3L),
+                        org.assertj.core.groups.Tuple.tuple("priority", "med", 3L, 0L),
+                        org.assertj.core.groups.Tuple.tuple("priority", "high", 0L, 3L));
+        assertThat(stats.stats(projectId, username)).isEqualTo(recount());
+        assertThat(stats.revision(projectId)).isEqualTo(revision);
+        assertThat(reconcileDrift()).isEmpty();
+    }
+
+    private List<StatsDrift> reconcileDrift() {
+        StatsReconcileResponse response = stats.reconcile();
+        return response.getDrift().stream().filter(d -> d.getProjectId().equals(projectId)).toList();
+    }
+
+    /** The stats counted from the tickets themselves. */
+    private ProjectStatsResponse recount() {
+        List<Ticket> all = tickets.findByProjectId(projectId).orElseThrow();
+        Map<TicketState, Long> byState = zeros(TicketState.class);
+        Map<TicketPriority, Long> byPriority = zeros(TicketPriority.class);
+        Map<TicketType, Long> byType = zeros(TicketType.class);
+        Map<UUID, Long> byAssignee = new HashMap<>();
+        long unassigned = 0;
+        for (Ticket t : all) {
+            byState.merge(t.getState(), 1L, Long::sum);
+            byPriority.merge(t.getPriority(), 1L, Long::sum);
+            byType.merge(t.getType(), 1L, Long::sum);
+            if (t.getAssignedUserId() == null) {
+                unassigned++;
+            } else {
+                byAssignee.merge(t.getAssignedUserId(), 1L, Long::sum);
+            }
+        }
+        return ProjectStatsResponse.builder()
+                .projectId(projectId)
+                .total(all.size())
+                .byState(byState)
+                .byPriority(byPriority)
+                .byType(byType)
+                .byAssignee(byAssignee)
+                .unassigned(unassigned)
+                .build();
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> zeros(Class<E> type) {
+        Map<E, Long> map = new EnumMap<>(type);
+        for (E e : type.getEnumConstants()) {
+            map.put(e, 0L);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tsystem.service;
+
+import com.tsystem.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expired revocations leave both the table and the local snapshot, and a revocation made while
+ * the snapshot is rebuilt is not lost.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:revoked;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/revoked-search-index"
+})
+class RevokedTokensTest {
+
+    @Autowired
+    private RevokedTokens revokedTokens;
+
+    @Autowired
+    private RevokedTokenRepository repository;
+
+    @Test
+    void expiredRevocationIsPruned() {
+        UUID expired = UUID.randomUUID();
+        UUID live = UUID.randomUUID();
+        revokedTokens.revoke(expired, UUID.randomUUID(), Instant.now().minusSeconds(1));
+        revokedTokens.revoke(live, UUID.randomUUID(), Instant.now().plusSeconds(600));
+
+        revokedTokens.refresh();
+        assertThat(revokedTokens.isRevoked(expired)).isFalse();
+        assertThat(revokedTokens.isRevoked(live)).isTrue();
+
+        revokedTokens.rebuild();
+        assertThat(repository.existsById(expired)).isFalse();
+        assertThat(repository.existsById(live)).isTrue();
+        assertThat(revokedTokens.isRevoked(live)).isTrue();
+    }
+
+    @Test
+    void revocationDuringRebuildIsKept() throws Exception {
+        UUID jti = UUID.randomUUID();
+        CountDownLatch saved = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        List<Future<?>> revoking = new ArrayList<>();
+        RevokedTokens[] tokens = new RevokedTokens[1];
+        boolean[] armed = new boolean[1];
+
+        // the revocation is committed after the rebuild read the table, before it swaps snapshots
+        RevokedTokenRepository hooked = (RevokedTokenRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{RevokedTokenRepository.class}, (proxy, method, args) -> {
+                    Object result = invoke(method, args);
+                    if (method.getName().equals("save")) {
+                        saved.countDown();
+                    } else if (method.getName().equals("findByExpiresAtAfter") && armed[0]) {
+                        armed[0] = false;
+                        revoking.add(pool.submit(() -> tokens[0].revoke(jti, UUID.randomUUID(), Instant.now().plusSeconds(600))));
+                        assertThat(saved.await(5, TimeUnit.SECONDS)).isTrue();
+                        Thread.sleep(200); // room for the revocation to finish, unless it waits for the rebuild
+                    }
+                    return result;
+                });
+        tokens[0] = new RevokedTokens(hooked, new SimpleMeterRegistry(), 1 << 16, 900_000);
+        try {
+            armed[0] = true;
+            tokens[0].rebuild();
+            revoking.get(0).get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+
+        // no refresh in between: what this node revoked must be in its snapshot right away
+        assertThat(tokens[0].isRevoked(jti)).isTrue();
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(repository, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.tsystem.service;
+
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketBatchOperation;
+import com.tsystem.model.dto.request.TicketBatchRequest;
+import com.tsystem.model.dto.request.TicketCommentRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.dto.response.TicketSearchHit;
+import com.tsystem.model.enums.TicketBatchAction;
+import com.tsystem.model.enums.TicketChangeType;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Ticket writes only queue the ticket for the search worker; the worker catches up with ticket,
+ * comment and batch changes and reindexes a ticket changed many times once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:search;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/search-search-index",
+        "search.index.rebuild-if-empty=false"
+})
+class SearchServiceTest {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserRepository users;
+
+    private String username;
+    private UUID projectId;
+    // the index directory outlives the run, searched words are new every time
+    private String word;
+
+    @BeforeEach
+    void setUp() {
+        username = "search-" + UUID.randomUUID().toString().substring(0, 8);
+        users.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("search")
+                .surname("search")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build());
+        projectId = projectService.create(ProjectCreateRequest.builder().name(username).build(), username).getId();
+        word = "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void workerFollowsTicketCommentAndBatchChanges() {
+        UUID ticketId = ticketService.create(projectId,
+                TicketRequest.builder().name(word + " first").type(TicketType.bug).build(), username).getId();
+        for (int i = 0; i < 20; i++) {
+            ticketService.patch(projectId, ticketId, TicketRequest.builder().name(word + "x" + i).build(), null, username);
+        }
+        ticketService.addComment(projectId, ticketId,
+                TicketCommentRequest.builder().body(word + "comment").build(), username);
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(hits(word + "x19")).containsExactly(ticketId);
+            assertThat(hits(word + "comment")).containsExactly(ticketId);
+            assertThat(hits(word + "x3")).isEmpty();
+        });
+
+        ticketService.batch(projectId, new TicketBatchRequest(List.of(
+                TicketBatchOperation.builder().op(TicketBatchAction.delete).ticketId(ticketId).build(),
+                TicketBatchOperation.builder().op(TicketBatchAction.create)
+                        .ticket(TicketRequest.builder().name(word + "batch").type(TicketType.task).build()).build()
+        )), username);
+
+        await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(hits(word + "x19")).isEmpty();
+            assertThat(hits(word + "batch")).hasSize(1);
+        });
+    }
+
+    @Test
+    void repeatedChangesOfOneTicketAreIndexedOnce() throws Exception {
+        UUID hot = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        searchService.stop();
+        try {
+            for (int i = 0; i < 50; i++) {
+                searchService.onTicketChanged(new TicketChangedEvent(projectId, hot, TicketChangeType.ticket_updated));
+            }
+            searchService.onTicketChanged(new TicketChangedEvent(projectId, other, TicketChangeType.ticket_deleted));
+
+            assertThat(searchService.update()).isEqualTo(2);
+            assertThat(searchService.update()).isZero();
+        } finally {
+            searchService.start();
+        }
+    }
+
+    private List<UUID> hits(String query) {
+        return searchService.search(query, 10, username).stream().map(TicketSearchHit::getTicketId).toList();
+    }
+}
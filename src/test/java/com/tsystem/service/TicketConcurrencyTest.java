@@ -0,0 +1,142 @@
+package com.tsystem.service;
+
+import com.tsystem.model.Ticket;
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.dto.response.ProjectStatsResponse;
+import com.tsystem.model.dto.response.TicketHistoryResponse;
+import com.tsystem.model.enums.TicketPriority;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.TicketHistoryReadRepository;
+import com.tsystem.repository.TicketRepository;
+import com.tsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many writers patching one hot ticket at once, with the default retry settings. Optimistic
+ * locking plus retry must let every write through: none is lost (each one is a version), none
+ * gives up, a write that lost once commits on its locked retry, and the history is still an
+ * unbroken chain: each row starts where the previous one ended and the last one ends at the
+ * ticket. What the conflicts cost in throughput is measured by {@code HotTicketBenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrency;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "jwt.expiration-ms=3600000",
+        "search.index.dir=target/concurrency-search-index"
+})
+class TicketConcurrencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 40;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private ProjectStatsService statsService;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private TicketRepository tickets;
+
+    @Autowired
+    private TicketHistoryReadRepository historyReads;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void hotTicketWritesAllSucceedAndHistoryStaysAChain() throws Exception {
+        users.save(User.builder()
+                .username("hot")
+                .email("hot@example.com")
+                .name("hot")
+                .surname("hot")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build());
+        UUID projectId = projectService.create(ProjectCreateRequest.builder().name("hot").build(), "hot").getId();
+        UUID ticketId = ticketService.create(projectId,
+                TicketRequest.builder().name("hot").type(TicketType.bug).build(), "hot").getId();
+
+        write(projectId, ticketId, WRITERS, WRITES_PER_WRITER);
+
+        int writes = WRITERS * WRITES_PER_WRITER;
+        assertThat(meterRegistry.counter("optimistic.conflicts", "outcome", "exhausted").count()).isZero();
+        assertThat(meterRegistry.summary("optimistic.attempts").max()).isLessThanOrEqualTo(2);
+
+        // every write renames the ticket, so each one is exactly one version: none was lost
+        Ticket ticket = tickets.findById(ticketId).orElseThrow();
+        assertThat(ticket.getVersion()).isEqualTo(writes);
+
+        // one row for the creation, one per write that changed state or priority
+        List<TicketHistoryResponse> history = historyReads.findPage(ticketId, null, writes + 2, false);
+        assertThat(history).hasSizeBetween(1, writes + 1);
+        for (int i = 1; i < history.size(); i++) {
+            TicketHistoryResponse previous = history.get(i - 1);
+            TicketHistoryResponse row = history.get(i);
+            assertThat(row.getOldState()).isEqualTo(previous.getNewState());
+            assertThat(row.getOldPriority()).isEqualTo(previous.getNewPriority());
+        }
+        TicketHistoryResponse last = history.get(history.size() - 1);
+        assertThat(last.getNewState()).isEqualTo(ticket.getState());
+        assertThat(last.getNewPriority()).isEqualTo(ticket.getPriority());
+
+        ProjectStatsResponse stats = statsService.stats(projectId, "hot");
+        assertThat(stats.getTotal()).isEqualTo(1);
+        assertThat(stats.getByState().get(ticket.getState())).isEqualTo(1);
+        assertThat(stats.getByPriority().get(ticket.getPriority())).isEqualTo(1);
+    }
+
+    /** Patches the ticket from {@code writers} threads at once, each write with a new name. */
+    private void write(UUID projectId, UUID ticketId, int writers, int writesPerWriter) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            running.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < writesPerWriter; i++) {
+                    TicketRequest patch = TicketRequest.builder()
+                            .name("hot " + writer + "-" + i)
+                            .state(TicketState.values()[random.nextInt(TicketState.values().length)])
+                            .priority(TicketPriority.values()[random.nextInt(TicketPriority.values().length)])
+                            .build();
+                    ticketService.patch(projectId, ticketId, patch, null, "hot");
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : running) {
+            writer.get(2, TimeUnit.MINUTES); // a write that gave up fails the test here
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,115 @@
+package com.tsystem.service;
+
+import com.tsystem.model.dto.request.ProjectCreateRequest;
+import com.tsystem.model.dto.request.TicketBatchOperation;
+import com.tsystem.model.dto.request.TicketBatchRequest;
+import com.tsystem.model.dto.request.TicketCommentRequest;
+import com.tsystem.model.dto.request.TicketRequest;
+import com.tsystem.model.dto.response.TicketBatchResponse;
+import com.tsystem.model.enums.TicketBatchAction;
+import com.tsystem.model.enums.TicketState;
+import com.tsystem.model.enums.TicketType;
+import com.tsystem.model.user.SystemRole;
+import com.tsystem.model.user.User;
+import com.tsystem.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every ticket has history rows referencing it, so deletes must take the history, outbox and
+ * comments with them; a batch delete must not fail the whole batch.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:delete;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "jwt.secret-key=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970",
+        "search.index.dir=target/delete-search-index"
+})
+class TicketDeleteTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private String username;
+    private UUID projectId;
+
+    @BeforeEach
+    void setUp() {
+        username = "del-" + UUID.randomUUID().toString().substring(0, 8);
+        users.save(User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("del")
+                .surname("del")
+                .password("x")
+                .role(SystemRole.SYSTEM_USER)
+                .build());
+        projectId = projectService.create(ProjectCreateRequest.builder().name(username).build(), username).getId();
+    }
+
+    @Test
+    void batchDeletesTicketWithHistoryAndComments() {
+        UUID doomed = ticketWithHistoryAndComment();
+        UUID kept = ticketWithHistoryAndComment();
+
+        TicketBatchResponse response = ticketService.batch(projectId, new TicketBatchRequest(List.of(
+                TicketBatchOperation.builder().op(TicketBatchAction.delete).ticketId(doomed).build(),
+                TicketBatchOperation.builder().op(TicketBatchAction.create)
+                        .ticket(TicketRequest.builder().name("new").type(TicketType.task).build()).build()
+        )), username);
+
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertGone(doomed);
+        assertThat(count("tickets", "id", kept)).isEqualTo(1);
+        assertThat(count("ticket_history", "ticket_id", kept)).isEqualTo(2);
+        assertThat(count("ticket_comments", "ticket_id", kept)).isEqualTo(1);
+    }
+
+    @Test
+    void deleteTakesHistoryAndComments() {
+        UUID doomed = ticketWithHistoryAndComment();
+
+        ticketService.delete(projectId, doomed, username);
+
+        assertGone(doomed);
+    }
+
+    /** A ticket with a creation and an update history row and one comment. */
+    private UUID ticketWithHistoryAndComment() {
+        UUID id = ticketService.create(projectId,
+                TicketRequest.builder().name("t").type(TicketType.bug).build(), username).getId();
+        ticketService.patch(projectId, id, TicketRequest.builder().state(TicketState.in_progress).build(), null, username);
+        ticketService.addComment(projectId, id, TicketCommentRequest.builder().body("c").build(), username);
+        assertThat(count("ticket_history", "ticket_id", id)).isEqualTo(2);
+        return id;
+    }
+
+    private void assertGone(UUID ticketId) {
+        assertThat(count("tickets", "id", ticketId)).isZero();
+        assertThat(count("ticket_history", "ticket_id", ticketId)).isZero();
+        assertThat(count("ticket_history_outbox", "ticket_id", ticketId)).isZero();
+        assertThat(count("ticket_comments", "ticket_id", ticketId)).isZero();
+    }
+
+    private long count(String table, String column, UUID id) {
+        Long n = jdbc.queryForObject("select count(*) from " + table + " where " + column + " = ?", Long.class, id);
+        return n != null ? n : 0;
+    }
+}
@@ -0,0 +1,213 @@
+package com.tsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsystem.model.TicketChangedEvent;
+import com.tsystem.model.enums.TicketChangeType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Subscriber buffers, the overflow policies and resuming by Last-Event-ID. The emitters record
+ * what is written to them; a held emitter blocks the only dispatch thread in its first write,
+ * so the events published meanwhile pile up in the subscriber's buffer.
+ */
+class TicketEventStreamTest {
+
+    private static final Pattern FIELD = Pattern.compile("^(event|id|data):(.*)$", Pattern.MULTILINE);
+
+    private final UUID projectId = UUID.randomUUID();
+    private final MeterRegistry meters = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    private TicketEventStream stream;
+    private boolean holdNext;
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(e -> e.gate.countDown());
+        stream.stop();
+    }
+
+    @Test
+    void dropOldestKeepsTheNewestEventsAndSendsReset() throws Exception {
+        stream = stream(4, "drop-oldest", 256);
+        RecordingEmitter held = subscribeHeld();
+
+        List<UUID> tickets = publish(10);
+        held.gate.countDown();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> held.events().size() == 5);
+        List<Sent> events = held.events();
+        assertThat(events.get(0).name()).isEqualTo(TicketEventStream.RESET);
+        assertThat(events.subList(1, 5)).extracting(Sent::data)
+                .allSatisfy(data -> assertThat(data).contains("ticket_updated"));
+        for (int i = 0; i < 4; i++) {
+            assertThat(events.get(i + 1).data()).contains(tickets.get(6 + i).toString());
+        }
+        assertThat(meters.counter("sse.events.dropped").count()).isEqualTo(6);
+        assertThat(stream.getSubscribers()).isEqualTo(1);
+    }
+
+    @Test
+    void disconnectClosesTheStreamOnOverflow() throws Exception {
+        stream = stream(4, "disconnect", 256);
+        RecordingEmitter held = subscribeHeld();
+
+        publish(5);
+        assertThat(meters.counter("sse.disconnects", "reason", "overflow").count()).isEqualTo(1);
+
+        // the blocked write holds the emitter, the stream is completed once it returns
+        held.gate.countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> held.completed);
+        assertThat(held.events()).isEmpty();
+        assertThat(stream.getSubscribers()).isZero();
+    }
+
+    @Test
+    void resumesAfterLastEventId() {
+        stream = stream(64, "drop-oldest", 256);
+        RecordingEmitter first = emitter();
+        stream.subscribe(projectId, null, "u");
+        List<UUID> tickets = publish(3);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> first.events().size() == 3);
+
+        RecordingEmitter resumed = emitter();
+        stream.subscribe(projectId, first.events().get(0).id(), "u");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> resumed.events().size() == 2);
+        assertThat(resumed.events().get(0).data()).contains(tickets.get(1).toString());
+        assertThat(resumed.events().get(1).data()).contains(tickets.get(2).toString());
+    }
+
+    @Test
+    void resetWhenTheLastEventIdIsNoLongerKept() {
+        stream = stream(64, "drop-oldest", 2);
+        RecordingEmitter first = emitter();
+        stream.subscribe(projectId, null, "u");
+        publish(4);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> first.events().size() == 4);
+
+        RecordingEmitter tooOld = emitter();
+        stream.subscribe(projectId, first.events().get(0).id(), "u");
+        RecordingEmitter unknown = emitter();
+        stream.subscribe(projectId, "another-run-7", "u");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> tooOld.events().size() == 1 && unknown.events().size() == 1);
+        assertThat(tooOld.events().get(0).name()).isEqualTo(TicketEventStream.RESET);
+        assertThat(unknown.events().get(0).name()).isEqualTo(TicketEventStream.RESET);
+        // the reset carries the newest id, resuming from it does not reset again
+        RecordingEmitter afterReset = emitter();
+        stream.subscribe(projectId, tooOld.events().get(0).id(), "u");
+        publish(1);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> afterReset.events().size() == 1);
+        assertThat(afterReset.events().get(0).name()).isEqualTo("ticket_updated");
+    }
+
+    // --------- helpers ---------
+
+    private TicketEventStream stream(int bufferSize, String overflow, int replaySize) {
+        return new TicketEventStream(mock(ProjectAccess.class), new ObjectMapper().findAndRegisterModules(), meters,
+                bufferSize, overflow, replaySize, Duration.ofMinutes(10), Duration.ofMinutes(30), 100, 1,
+                Duration.ofSeconds(5)) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return emitters.get(emitters.size() - 1);
+            }
+        };
+    }
+
+    private RecordingEmitter emitter() {
+        RecordingEmitter emitter = new RecordingEmitter(holdNext);
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    /** Subscribes with an emitter whose first write (the connected comment) blocks until its gate opens. */
+    private RecordingEmitter subscribeHeld() throws InterruptedException {
+        holdNext = true;
+        RecordingEmitter held = emitter();
+        stream.subscribe(projectId, null, "u");
+        assertThat(held.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return held;
+    }
+
+    private List<UUID> publish(int count) {
+        List<UUID> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID ticketId = UUID.randomUUID();
+            tickets.add(ticketId);
+            stream.onTicketChanged(new TicketChangedEvent(projectId, ticketId, TicketChangeType.ticket_updated));
+        }
+        return tickets;
+    }
+
+    record Sent(String name, String id, String data) {}
+
+    static final class RecordingEmitter extends SseEmitter {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        RecordingEmitter(boolean held) {
+            if (!held) {
+                gate.countDown();
+            }
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(d -> text.append(d.getData()));
+            sent.add(text.toString().trim());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        /** Named events, comments left out. */
+        List<Sent> events() {
+            List<Sent> events = new ArrayList<>();
+            for (String s : sent) {
+                Map<String, String> fields = new HashMap<>();
+                Matcher m = FIELD.matcher(s);
+                while (m.find()) {
+                    fields.put(m.group(1), m.group(2));
+                }
+                if (fields.containsKey("event")) {
+                    events.add(new Sent(fields.get("event"), fields.get("id"), fields.get("data")));
+                }
+            }
+            return events;
+        }
+    }
+}